@@ -0,0 +1,16 @@
+package org.example.buildingservice.building;
+
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+public interface BuildingBatchRepository {
+
+    /**
+     * Inserts or updates the buildings by name with one multi-row statement. One flag is returned per row actually
+     * written, true for an insert and false for an update; buildings whose area already matches are left untouched.
+     * An area below what the building's rooms use is held at the used area, so rooms can be synced before the building
+     * shrinks; {@link BuildingRepository#applyAreas} then sets the final areas.
+     */
+    Flux<Boolean> upsertAll(List<Building> buildings);
+}
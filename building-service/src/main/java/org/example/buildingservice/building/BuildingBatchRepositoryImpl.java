@@ -0,0 +1,42 @@
+package org.example.buildingservice.building;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+public class BuildingBatchRepositoryImpl implements BuildingBatchRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public BuildingBatchRepositoryImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Flux<Boolean> upsertAll(List<Building> buildings) {
+        if (buildings.isEmpty())
+            return Flux.empty();
+        StringBuilder sql = new StringBuilder("INSERT INTO building (name, area) VALUES ");
+        for (int i = 0; i < buildings.size(); i++) {
+            if (i > 0)
+                sql.append(", ");
+            sql.append("(:name").append(i)
+                    .append(", :area").append(i)
+                    .append(')');
+        }
+        sql.append("""
+                 ON CONFLICT (name) DO UPDATE
+                SET area = greatest(EXCLUDED.area, building.used_area)
+                WHERE building.area IS DISTINCT FROM EXCLUDED.area
+                RETURNING (xmax = 0) AS inserted""");
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < buildings.size(); i++) {
+            Building building = buildings.get(i);
+            spec = spec.bind("name" + i, building.getName())
+                    .bind("area" + i, building.getArea());
+        }
+        return spec.map(row -> row.get("inserted", Boolean.class)).all();
+    }
+}
@@ -3,6 +3,7 @@ package org.example.buildingservice.building;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.buildingservice.payload.ApiResponse;
+import org.example.buildingservice.payload.CursorPage;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,6 +17,7 @@ import reactor.core.publisher.Mono;
 public class BuildingController {
 
     private final BuildingService buildingService;
+    private final BuildingSyncService buildingSyncService;
 
     @GetMapping
     public Flux<BuildingDto> getAllBuildings(@RequestParam(defaultValue = "1") int page,
@@ -47,8 +49,34 @@ public class BuildingController {
 //        return Flux.empty();
     }
 
+    @GetMapping(params = "after")
+    public Mono<CursorPage<BuildingDto>> getBuildingsAfter(@RequestParam String after,
+                                                           @RequestParam(defaultValue = "10") int size) {
+        return buildingService.getBuildingsAfter(after, size);
+    }
+
+    @GetMapping("/search")
+    public Mono<CursorPage<BuildingDto>> searchBuildings(@RequestParam(required = false) String q,
+                                                         @RequestParam(required = false) Double minArea,
+                                                         @RequestParam(required = false) Double maxArea,
+                                                         @RequestParam(required = false) String after,
+                                                         @RequestParam(defaultValue = "10") int size) {
+        return buildingService.searchBuildings(q, minArea, maxArea, after, size);
+    }
+
+    @GetMapping("/search/free-area")
+    public Flux<BuildingFreeAreaDto> searchByFreeArea(@RequestParam(defaultValue = "0") double min,
+                                                      @RequestParam(required = false) Integer floor,
+                                                      @RequestParam(defaultValue = "10") int size) {
+        return buildingService.searchByFreeArea(min, floor, size);
+    }
+
     @GetMapping("/{id}")
-    public Mono<BuildingDto> getBuildingById(@PathVariable Integer id) {
+    public Mono<BuildingDto> getBuildingById(@PathVariable Integer id,
+                                             @RequestParam(required = false) String include,
+                                             @RequestParam(required = false) Integer floor) {
+        if ("rooms".equals(include))
+            return buildingService.getBuildingWithRooms(id, floor);
         return buildingService.getBuildingById(id);
     }
 
@@ -82,6 +110,20 @@ public class BuildingController {
                                 HttpStatus.OK));
     }
 
+    @PutMapping("/sync")
+    public Mono<ResponseEntity<ApiResponse>> syncBuildings(@RequestBody Flux<BuildingDto> buildings,
+                                                           @RequestParam(defaultValue = "false") boolean prune) {
+        log.info("Syncing buildings, prune: {}", prune);
+        return buildingSyncService.sync(buildings, prune)
+                .map(result ->
+                        new ResponseEntity<>(
+                                new ApiResponse(
+                                        true,
+                                        "Successfully synced!!",
+                                        result),
+                                HttpStatus.OK));
+    }
+
     @DeleteMapping("/{id}")
     public Mono<ResponseEntity<ApiResponse>> deleteBuilding(@PathVariable Integer id) {
         return buildingService.deleteBuilding(id)
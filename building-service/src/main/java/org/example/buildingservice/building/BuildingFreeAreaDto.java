@@ -0,0 +1,19 @@
+package org.example.buildingservice.building;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class BuildingFreeAreaDto {
+    private Integer id;
+    private String name;
+    private Double area;
+    private Double usedArea;
+    private Double freeArea;
+    private Integer roomCount;
+}
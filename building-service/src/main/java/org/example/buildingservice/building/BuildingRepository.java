@@ -1,10 +1,138 @@
 package org.example.buildingservice.building;
 
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Repository
-public interface BuildingRepository extends ReactiveCrudRepository<Building, Integer> {
+public interface BuildingRepository extends ReactiveCrudRepository<Building, Integer>, BuildingBatchRepository,
+        BuildingSearchRepository {
 
+    @Query("""
+            SELECT * FROM building
+            ORDER BY id
+            LIMIT :size OFFSET :offset
+            """)
+    Flux<Building> findPage(long offset, int size);
+
+    @Query("""
+            SELECT * FROM building
+            WHERE id > :after
+            ORDER BY id
+            LIMIT :size
+            """)
+    Flux<Building> findAllAfter(int after, int size);
+
+    @Query("SELECT * FROM building WHERE name = ANY(:names)")
+    Flux<Building> findAllByNames(String[] names);
+
+    @Query("""
+            SELECT b.id    as building_id,
+                   b.name  as building_name,
+                   b.area  as building_area,
+                   r.id    as room_id,
+                   r.name  as room_name,
+                   r.area  as room_area,
+                   r.floor as floor
+            FROM building b
+                     LEFT JOIN room r ON r.building_id = b.id AND (:floor IS NULL OR r.floor = :floor)
+            WHERE b.id = :id
+            ORDER BY r.floor, r.name
+            """)
+    Flux<BuildingRoomRow> getBuildingWithRooms(Integer id, Integer floor);
+
+    /**
+     * Buildings with at least {@code min} unallocated area, most free first. Served by the index on the
+     * generated free_area column; {@code floor} narrows to buildings that already have rooms on that floor.
+     */
+    @Query("""
+            SELECT b.id, b.name, b.area, b.used_area, b.free_area, b.room_count
+            FROM building b
+            WHERE b.free_area >= :min
+              AND (:floor IS NULL OR EXISTS(SELECT 1 FROM room r WHERE r.building_id = b.id AND r.floor = :floor))
+            ORDER BY b.free_area DESC, b.id
+            LIMIT :size
+            """)
+    Flux<BuildingFreeAreaDto> findByFreeArea(double min, Integer floor, int size);
+
+    /**
+     * Moves the building's used area and room count by the given deltas. Growing the used area only succeeds
+     * while it still fits into the building, so the returned count is 0 when the building is full or missing.
+     */
+    @Modifying
+    @Query("""
+            UPDATE building
+            SET used_area  = used_area + :area,
+                room_count = room_count + :rooms
+            WHERE id = :id
+              AND (:area <= 0 OR used_area + :area <= area)
+            """)
+    Mono<Integer> adjustUsedArea(Integer id, double area, int rooms);
+
+    /**
+     * Renames and resizes the building unless the new area is smaller than what its rooms already use, so nothing
+     * is returned for a missing building or a too small area.
+     */
+    @Query("""
+            UPDATE building
+            SET name = :name,
+                area = :area
+            WHERE id = :id
+              AND :area >= used_area
+            RETURNING *
+            """)
+    Mono<Building> updateWithinUsage(Integer id, String name, Double area);
+
+    /**
+     * Sets the areas of the named buildings, the last step of a sync once their rooms are in place. A building still
+     * too small for its rooms fails the check on used area.
+     */
+    @Modifying
+    @Query("""
+            UPDATE building b
+            SET area = v.area
+            FROM unnest(:names, :areas) AS v(name, area)
+            WHERE b.name = v.name
+              AND b.area IS DISTINCT FROM v.area
+            """)
+    Mono<Integer> applyAreas(String[] names, Double[] areas);
+
+    /**
+     * Names of the given buildings whose rooms take more area than the building has.
+     */
+    @Query("""
+            SELECT b.name
+            FROM building b
+                     LEFT JOIN room r ON r.building_id = b.id
+            WHERE b.id = ANY(:ids)
+            GROUP BY b.id, b.name, b.area
+            HAVING coalesce(sum(r.area), 0) > b.area
+            """)
+    Flux<String> findOverfilledNames(Integer[] ids);
+
+    /**
+     * Recounts used area and rooms of the given buildings from the room table, writing only counters that drifted.
+     */
+    @Modifying
+    @Query("""
+            UPDATE building b
+            SET used_area  = u.used_area,
+                room_count = u.room_count
+            FROM (SELECT b2.id, coalesce(sum(r.area), 0) AS used_area, count(r.id) AS room_count
+                  FROM building b2
+                           LEFT JOIN room r ON r.building_id = b2.id
+                  WHERE b2.id = ANY(:ids)
+                  GROUP BY b2.id) u
+            WHERE b.id = u.id
+              AND (b.used_area, b.room_count) IS DISTINCT FROM (u.used_area, u.room_count)
+            """)
+    Mono<Integer> recomputeUsage(Integer[] ids);
+
+    @Modifying
+    @Query("DELETE FROM building WHERE NOT (name = ANY(:names))")
+    Mono<Integer> deleteAllNotNamed(String[] names);
 
 }
@@ -0,0 +1,23 @@
+package org.example.buildingservice.building;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row of the building/room join; room columns are null for a building without (matching) rooms.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class BuildingRoomRow {
+    private Integer buildingId;
+    private String buildingName;
+    private Double buildingArea;
+    private Integer roomId;
+    private String roomName;
+    private Double roomArea;
+    private Integer floor;
+}
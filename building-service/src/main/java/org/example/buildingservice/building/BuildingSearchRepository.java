@@ -0,0 +1,13 @@
+package org.example.buildingservice.building;
+
+import reactor.core.publisher.Flux;
+
+public interface BuildingSearchRepository {
+
+    /**
+     * Keyset page of buildings whose name matches {@code pattern} and whose area is within the bounds; null
+     * arguments do not filter. Only the given filters end up in the WHERE clause, so name matching is served by the
+     * trigram index, and infix patterns are cheap too.
+     */
+    Flux<Building> search(String pattern, Double minArea, Double maxArea, int after, int size);
+}
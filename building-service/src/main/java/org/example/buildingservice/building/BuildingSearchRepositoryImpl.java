@@ -0,0 +1,42 @@
+package org.example.buildingservice.building;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+public class BuildingSearchRepositoryImpl implements BuildingSearchRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public BuildingSearchRepositoryImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Flux<Building> search(String pattern, Double minArea, Double maxArea, int after, int size) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(searchSql(pattern, minArea, maxArea))
+                .bind("after", after)
+                .bind("size", size);
+        if (pattern != null)
+            spec = spec.bind("pattern", pattern);
+        if (minArea != null)
+            spec = spec.bind("minArea", minArea);
+        if (maxArea != null)
+            spec = spec.bind("maxArea", maxArea);
+        return spec.map(row -> new Building(
+                        row.get("id", Integer.class),
+                        row.get("name", String.class),
+                        row.get("area", Double.class)))
+                .all();
+    }
+
+    static String searchSql(String pattern, Double minArea, Double maxArea) {
+        StringBuilder sql = new StringBuilder("SELECT id, name, area FROM building WHERE id > :after");
+        if (pattern != null)
+            sql.append(" AND name ILIKE :pattern");
+        if (minArea != null)
+            sql.append(" AND area >= :minArea");
+        if (maxArea != null)
+            sql.append(" AND area <= :maxArea");
+        return sql.append(" ORDER BY id LIMIT :size").toString();
+    }
+}
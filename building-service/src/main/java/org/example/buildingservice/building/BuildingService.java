@@ -2,11 +2,17 @@ package org.example.buildingservice.building;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.buildingservice.cache.CacheInvalidationBus;
+import org.example.buildingservice.cache.ReactiveCache;
 import org.example.buildingservice.exception.CustomBadRequestException;
 import org.example.buildingservice.exception.CustomGeneralException;
 import org.example.buildingservice.exception.ResourceNotFoundException;
 import org.example.buildingservice.exception.UniqueKeyException;
+import org.example.buildingservice.payload.Cursor;
+import org.example.buildingservice.payload.CursorPage;
+import org.example.buildingservice.payload.LikePattern;
 import org.example.buildingservice.room.Room;
+import org.example.buildingservice.room.RoomDto;
 import org.example.buildingservice.room.RoomRepository;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
@@ -22,8 +28,12 @@ import java.util.stream.Collectors;
 @Slf4j
 public class BuildingService {
 
+    private static final int MAX_SEARCH_SIZE = 1000;
+
     private final BuildingRepository buildingRepository;
     private final RoomRepository roomRepository;
+    private final ReactiveCache<Integer, Building> buildingCache;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     public Flux<BuildingDto> getAllBuildings(int page, int size) {
         if (page < 0 || size <= 0) {
@@ -31,20 +41,80 @@ public class BuildingService {
             return Flux.error(() -> new CustomBadRequestException("Page and size should not be less than 1"));
         }
         log.info("return all buildings");
-        return buildingRepository.findAll()
-                .skip((long) page * size)
-                .take(size)
+        return buildingRepository.findPage((long) page * size, size)
                 .map(this::convertToBuildingDto);
     }
 
+    public Mono<CursorPage<BuildingDto>> getBuildingsAfter(String after, int size) {
+        if (size <= 0) {
+            log.error("Bad request...");
+            return Mono.error(() -> new CustomBadRequestException("Size should not be less than 1"));
+        }
+        return Mono.fromCallable(() -> Cursor.decodeId(after))
+                .flatMapMany(afterId -> buildingRepository.findAllAfter(afterId, size))
+                .map(this::convertToBuildingDto)
+                .collectList()
+                .map(buildings -> CursorPage.of(buildings, size, BuildingDto::getId));
+    }
+
+
+    public Mono<CursorPage<BuildingDto>> searchBuildings(String query, Double minArea, Double maxArea,
+                                                         String after, int size) {
+        if (size <= 0 || size > MAX_SEARCH_SIZE || (minArea != null && maxArea != null && minArea > maxArea)) {
+            log.error("Bad request...");
+            return Mono.error(() -> new CustomBadRequestException("Size should be between 1 and " + MAX_SEARCH_SIZE + " and minArea should not exceed maxArea"));
+        }
+        return Mono.fromCallable(() -> Cursor.decodeId(after))
+                .flatMapMany(afterId -> buildingRepository.search(LikePattern.contains(query), minArea, maxArea, afterId, size))
+                .map(this::convertToBuildingDto)
+                .collectList()
+                .map(buildings -> CursorPage.of(buildings, size, BuildingDto::getId));
+    }
+
+    public Flux<BuildingFreeAreaDto> searchByFreeArea(double min, Integer floor, int size) {
+        if (min < 0 || size <= 0) {
+            log.error("Bad request...");
+            return Flux.error(() -> new CustomBadRequestException("Min area should not be negative and size should not be less than 1"));
+        }
+        return buildingRepository.findByFreeArea(min, floor, size);
+    }
 
     public Mono<BuildingDto> getBuildingById(Integer id) {
-        return buildingRepository.findById(id)
+        return buildingCache.get(id, buildingRepository::findById)
                 .map(this::convertToBuildingDto)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("Building", id)));
     }
 
 
+    /**
+     * Loads the building and its rooms, ordered by floor, with a single join instead of a call per page of rooms.
+     */
+    public Mono<BuildingDto> getBuildingWithRooms(Integer id, Integer floor) {
+        return buildingRepository.getBuildingWithRooms(id, floor)
+                .collectList()
+                .flatMap(rows -> {
+                    if (rows.isEmpty())
+                        return Mono.error(new ResourceNotFoundException("Building", id));
+                    BuildingRoomRow building = rows.get(0);
+                    List<RoomDto> rooms = rows.stream()
+                            .filter(row -> row.getRoomId() != null)
+                            .map(row -> RoomDto.builder()
+                                    .id(row.getRoomId())
+                                    .name(row.getRoomName())
+                                    .area(row.getRoomArea())
+                                    .floor(row.getFloor())
+                                    .buildingId(building.getBuildingId())
+                                    .buildingName(building.getBuildingName())
+                                    .build())
+                            .toList();
+                    return Mono.just(new BuildingDto(
+                            building.getBuildingId(),
+                            building.getBuildingName(),
+                            building.getBuildingArea(),
+                            rooms));
+                });
+    }
+
     @Transactional
     public Mono<BuildingDto> addBuilding(BuildingDto buildingDto) {
         Building building = convertFromDtoToBuilding(buildingDto);
@@ -66,23 +136,27 @@ public class BuildingService {
 
 
     public Mono<BuildingDto> updateBuilding(Integer id, BuildingDto buildingDto) {
-        return buildingRepository.findById(id)
-                .flatMap(existingBuilding -> {
-                    existingBuilding.setName(buildingDto.getName());
-                    existingBuilding.setArea(buildingDto.getArea());
-                    return buildingRepository.save(existingBuilding);
-                })
-                .map(this::convertToBuildingDto)
-                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Building", id)));
+        if (buildingDto.getArea() == null || buildingDto.getArea() < 0)
+            return Mono.error(() -> new CustomBadRequestException("Building area should not be negative"));
+        return buildingRepository.updateWithinUsage(id, buildingDto.getName(), buildingDto.getArea())
+                .switchIfEmpty(Mono.defer(() -> buildingRepository.existsById(id)
+                        .flatMap(exists -> Mono.error(exists
+                                ? new CustomBadRequestException("Building's area is smaller than the area of its rooms")
+                                : new ResourceNotFoundException("Building", id)))))
+                .flatMap(savedBuilding -> cacheInvalidationBus.buildingChanged(id).thenReturn(savedBuilding))
+                .map(this::convertToBuildingDto);
     }
 
     public Mono<Boolean> deleteBuilding(Integer id) {
         return buildingRepository.deleteById(id)
                 .onErrorMap(e -> new CustomBadRequestException("You can't delete an building with id: " + id))
+                .then(cacheInvalidationBus.buildingChanged(id))
                 .flatMap(unused -> Mono.just(true));
     }
 
     private Mono<Building> saveRooms(BuildingDto buildingDto, Building savedBuilding) {
+        if (buildingDto.getRooms().stream().anyMatch(roomDto -> roomDto.getArea() == null || roomDto.getArea() < 0))
+            return Mono.error(new CustomBadRequestException("Room area should not be negative"));
         List<Room> rooms = buildingDto.getRooms().stream()
                 .map(roomDto ->
                         Room.builder()
@@ -103,7 +177,7 @@ public class BuildingService {
         }
 
 
-        return roomRepository.saveAll(rooms)
+        return roomRepository.insertAll(rooms)
                 .onErrorResume(e -> {
                     if (e instanceof DuplicateKeyException) {
                         String errorMsg = "Room with the same name already exists.";
@@ -112,7 +186,10 @@ public class BuildingService {
                     } else
                         throw new CustomGeneralException();
                 })
-                .then(Mono.just(savedBuilding));
+                .then(Mono.defer(() -> buildingRepository.adjustUsedArea(savedBuilding.getId(), totalRoomArea, rooms.size())))
+                .flatMap(updated -> updated == 0
+                        ? Mono.error(new CustomBadRequestException("Building's area is not enough for the rooms"))
+                        : Mono.just(savedBuilding));
     }
 
 
@@ -132,13 +209,9 @@ public class BuildingService {
     }
 
     public Mono<Boolean> checkBuildingIfExist(Integer id) {
-        return buildingRepository.existsById(id)
-                .flatMap(isExist -> {
-                            if (!isExist)
-                                return Mono.error(new ResourceNotFoundException("Building", id));
-                            return Mono.just(true);
-                        }
-                );
+        return buildingCache.get(id, buildingRepository::findById)
+                .map(building -> true)
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Building", id)));
 
     }
 }
@@ -0,0 +1,154 @@
+package org.example.buildingservice.building;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.buildingservice.cache.CacheInvalidationBus;
+import org.example.buildingservice.exception.CustomBadRequestException;
+import org.example.buildingservice.room.Room;
+import org.example.buildingservice.room.RoomDto;
+import org.example.buildingservice.room.RoomRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies master data to buildings and rooms with set-based upserts. Every chunk of buildings is written in its own
+ * transaction, so a failing chunk leaves the earlier ones applied and the sync can simply be re-run. Caches are
+ * invalidated after each committed chunk, and a chunk whose rooms would not fit into their building is rejected.
+ */
+@Service
+@Slf4j
+public class BuildingSyncService {
+
+    private static final String USED_AREA_CHECK = "ck_building_used_area_within_area";
+
+    private final BuildingRepository buildingRepository;
+    private final RoomRepository roomRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final int chunkSize;
+
+    public BuildingSyncService(BuildingRepository buildingRepository,
+                               RoomRepository roomRepository,
+                               TransactionalOperator transactionalOperator,
+                               CacheInvalidationBus cacheInvalidationBus,
+                               @Value("${building-service.sync-chunk-size:500}") int chunkSize) {
+        this.buildingRepository = buildingRepository;
+        this.roomRepository = roomRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Buildings are matched by name and rooms by name within their building. A building sent without a rooms list
+     * keeps its rooms; with a list, rooms missing from it are deleted. With {@code prune}, buildings missing from the
+     * whole sync are deleted together with their rooms.
+     */
+    public Mono<SyncResultDto> sync(Flux<BuildingDto> buildings, boolean prune) {
+        Set<String> names = new HashSet<>();
+        return buildings
+                .doOnNext(BuildingSyncService::validate)
+                .doOnNext(building -> names.add(building.getName()))
+                .buffer(chunkSize)
+                .concatMap(chunk -> syncChunk(chunk)
+                        .as(transactionalOperator::transactional)
+                        .flatMap(result -> cacheInvalidationBus.allChanged().thenReturn(result)))
+                .reduce(SyncResultDto.empty(), SyncResultDto::plus)
+                .flatMap(result -> prune
+                        ? prune(names).flatMap(pruned -> cacheInvalidationBus.allChanged().thenReturn(result.plus(pruned)))
+                        : Mono.just(result))
+                .doOnNext(result -> log.info("Synced buildings {}, rooms {}", result.getBuildings(), result.getRooms()));
+    }
+
+    private Mono<SyncResultDto> syncChunk(List<BuildingDto> chunk) {
+        Map<String, BuildingDto> byName = new LinkedHashMap<>();
+        chunk.forEach(building -> byName.put(building.getName(), building));
+        List<Building> buildings = byName.values().stream()
+                .map(building -> new Building(building.getName(), building.getArea()))
+                .toList();
+
+        // a shrinking building keeps room for its current rooms until they are synced, then gets its final area
+        String[] names = byName.keySet().toArray(String[]::new);
+        return buildingRepository.upsertAll(buildings)
+                .collectList()
+                .map(written -> SyncCountsDto.of(written, buildings.size(), 0))
+                .flatMap(counts -> buildingRepository.findAllByNames(names)
+                        .collectMap(Building::getName, Building::getId)
+                        .flatMap(ids -> syncRooms(byName.values(), ids))
+                        .map(rooms -> new SyncResultDto(counts, rooms)))
+                .flatMap(result -> buildingRepository.applyAreas(names,
+                                buildings.stream().map(Building::getArea).toArray(Double[]::new))
+                        .onErrorMap(BuildingSyncService::isCapacityViolation,
+                                e -> new CustomBadRequestException("A synced building is smaller than the area of its rooms"))
+                        .thenReturn(result));
+    }
+
+    private static boolean isCapacityViolation(Throwable e) {
+        return e instanceof DataIntegrityViolationException && e.getMessage() != null
+                && e.getMessage().contains(USED_AREA_CHECK);
+    }
+
+    private Mono<SyncCountsDto> syncRooms(Collection<BuildingDto> buildings, Map<String, Integer> ids) {
+        List<Integer> buildingIds = new ArrayList<>();
+        Map<String, Room> rooms = new LinkedHashMap<>();
+        for (BuildingDto building : buildings) {
+            if (building.getRooms() == null)
+                continue;
+            Integer buildingId = ids.get(building.getName());
+            buildingIds.add(buildingId);
+            for (RoomDto room : building.getRooms())
+                rooms.put(buildingId + "/" + room.getName(),
+                        new Room(room.getName(), room.getArea(), room.getFloor(), buildingId));
+        }
+        if (buildingIds.isEmpty())
+            return Mono.just(new SyncCountsDto());
+
+        List<Room> incoming = List.copyOf(rooms.values());
+        Integer[] touched = buildingIds.toArray(Integer[]::new);
+        return roomRepository.upsertAll(incoming)
+                .collectList()
+                .flatMap(written -> roomRepository.deleteAllNotIn(touched,
+                                incoming.stream().map(Room::getBuildingId).toArray(Integer[]::new),
+                                incoming.stream().map(Room::getName).toArray(String[]::new))
+                        .map(deleted -> SyncCountsDto.of(written, incoming.size(), deleted)))
+                .flatMap(counts -> buildingRepository.findOverfilledNames(touched)
+                        .collectList()
+                        .flatMap(overfilled -> overfilled.isEmpty()
+                                ? buildingRepository.recomputeUsage(touched).thenReturn(counts)
+                                : Mono.error(new CustomBadRequestException("Rooms do not fit into buildings " + overfilled))));
+    }
+
+    private Mono<SyncResultDto> prune(Set<String> names) {
+        if (names.isEmpty())
+            return Mono.error(() -> new CustomBadRequestException("Refusing to prune with an empty sync"));
+        String[] kept = names.toArray(String[]::new);
+        return roomRepository.deleteAllOfBuildingsNotNamed(kept)
+                .flatMap(deletedRooms -> buildingRepository.deleteAllNotNamed(kept)
+                        .map(deletedBuildings -> new SyncResultDto(
+                                SyncCountsDto.builder().deleted(deletedBuildings).build(),
+                                SyncCountsDto.builder().deleted(deletedRooms).build())))
+                .as(transactionalOperator::transactional);
+    }
+
+    private static void validate(BuildingDto building) {
+        if (building.getName() == null || building.getArea() == null)
+            throw new CustomBadRequestException("Building name and area are required");
+        if (building.getRooms() != null)
+            for (RoomDto room : building.getRooms())
+                if (room.getName() == null || room.getArea() == null || room.getFloor() == null)
+                    throw new CustomBadRequestException("Room name, area and floor are required in building " + building.getName());
+                else if (room.getArea() < 0)
+                    throw new CustomBadRequestException("Room area can't be negative in building " + building.getName());
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.buildingservice.building;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class SyncCountsDto {
+    private int inserted;
+    private int updated;
+    private int unchanged;
+    private int deleted;
+
+    /**
+     * Counts for {@code total} incoming rows of which {@code written} came back from an upsert, true meaning inserted.
+     */
+    public static SyncCountsDto of(List<Boolean> written, int total, int deleted) {
+        int inserted = (int) written.stream().filter(Boolean::booleanValue).count();
+        return new SyncCountsDto(inserted, written.size() - inserted, total - written.size(), deleted);
+    }
+
+    public SyncCountsDto plus(SyncCountsDto other) {
+        return new SyncCountsDto(
+                inserted + other.inserted,
+                updated + other.updated,
+                unchanged + other.unchanged,
+                deleted + other.deleted);
+    }
+}
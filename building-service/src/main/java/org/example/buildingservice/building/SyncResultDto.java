@@ -0,0 +1,23 @@
+package org.example.buildingservice.building;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class SyncResultDto {
+    private SyncCountsDto buildings;
+    private SyncCountsDto rooms;
+
+    public static SyncResultDto empty() {
+        return new SyncResultDto(new SyncCountsDto(), new SyncCountsDto());
+    }
+
+    public SyncResultDto plus(SyncResultDto other) {
+        return new SyncResultDto(buildings.plus(other.buildings), rooms.plus(other.rooms));
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.buildingservice.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.buildingservice.building.Building;
+import org.example.buildingservice.room.RoomDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+    @Value("${building-service.cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${building-service.cache.expire-after-write:10m}")
+    private Duration expireAfterWrite;
+
+    @Bean
+    public ReactiveCache<Integer, Building> buildingCache(MeterRegistry meterRegistry) {
+        return new ReactiveCache<Integer, Building>(maximumSize, expireAfterWrite)
+                .bindTo(meterRegistry, "buildings");
+    }
+
+    @Bean
+    public ReactiveCache<Integer, RoomDto> roomCache(MeterRegistry meterRegistry) {
+        return new ReactiveCache<Integer, RoomDto>(maximumSize, expireAfterWrite)
+                .bindTo(meterRegistry, "rooms");
+    }
+}
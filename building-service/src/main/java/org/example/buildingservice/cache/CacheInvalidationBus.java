@@ -0,0 +1,157 @@
+package org.example.buildingservice.cache;
+
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Wrapped;
+import lombok.extern.slf4j.Slf4j;
+import org.example.buildingservice.building.Building;
+import org.example.buildingservice.room.RoomDto;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Evicts cached buildings and rooms on every instance. Writers evict locally and publish a Postgres
+ * NOTIFY; each instance LISTENs on one dedicated connection and evicts what the others changed.
+ * Notifications sent inside a transaction are delivered when it commits.
+ * <p>
+ * The LISTEN connection is opened outside the r2dbc pool, from the same {@code spring.r2dbc} url and credentials,
+ * so it neither holds a pool slot for the life of the application nor gets evicted by the pool's idle and lifetime
+ * limits. When it fails or the server closes it, the listener reconnects and evicts everything it may have missed.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus implements DisposableBean {
+
+    static final String CHANNEL = "building_service_cache";
+    private static final String BUILDING = "building";
+    private static final String ROOM = "room";
+    private static final String ALL = "all";
+
+    private final ConnectionFactory listenConnectionFactory;
+    private final DatabaseClient databaseClient;
+    private final ReactiveCache<Integer, Building> buildingCache;
+    private final ReactiveCache<Integer, RoomDto> roomCache;
+    private Disposable listener;
+
+    public CacheInvalidationBus(R2dbcProperties r2dbcProperties,
+                                DatabaseClient databaseClient,
+                                ReactiveCache<Integer, Building> buildingCache,
+                                ReactiveCache<Integer, RoomDto> roomCache) {
+        this.listenConnectionFactory = unpooled(r2dbcProperties);
+        this.databaseClient = databaseClient;
+        this.buildingCache = buildingCache;
+        this.roomCache = roomCache;
+    }
+
+    public Mono<Void> buildingChanged(Integer id) {
+        return publish(BUILDING + ":" + id);
+    }
+
+    public Mono<Void> roomChanged(Integer id) {
+        return publish(ROOM + ":" + id);
+    }
+
+    public Mono<Void> allChanged() {
+        return publish(ALL);
+    }
+
+    private Mono<Void> publish(String payload) {
+        return Mono.defer(() -> {
+            evict(payload);
+            return databaseClient.sql("SELECT pg_notify(:channel, :payload)")
+                    .bind("channel", CHANNEL)
+                    .bind("payload", payload)
+                    .then();
+        });
+    }
+
+    void evict(String payload) {
+        if (ALL.equals(payload)) {
+            evictAll();
+            return;
+        }
+        String[] parts = payload.split(":", 2);
+        if (parts.length != 2) {
+            log.warn("Ignoring cache invalidation {}", payload);
+            return;
+        }
+        Integer id = Integer.valueOf(parts[1]);
+        if (BUILDING.equals(parts[0])) {
+            buildingCache.evict(id);
+            // cached rooms carry the building name
+            roomCache.evictAll();
+        } else if (ROOM.equals(parts[0])) {
+            roomCache.evict(id);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void listen() {
+        listener = Flux.usingWhen(listenConnectionFactory.create(),
+                        connection -> {
+                            PostgresqlConnection postgresqlConnection = unwrap(connection);
+                            return postgresqlConnection.createStatement("LISTEN " + CHANNEL)
+                                    .execute()
+                                    .flatMap(result -> result.getRowsUpdated())
+                                    // anything published while we were not listening is lost
+                                    .doOnComplete(this::evictAll)
+                                    .thenMany(postgresqlConnection.getNotifications());
+                        },
+                        Connection::close)
+                // a connection the server closed cleanly completes the notifications instead of failing them
+                .repeatWhen(completions -> completions
+                        .doOnNext(unused -> log.warn("Cache invalidation listener connection closed, reconnecting"))
+                        .delayElements(Duration.ofSeconds(1)))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .transientErrors(true)
+                        .doBeforeRetry(signal -> log.warn("Cache invalidation listener failed, reconnecting: {}",
+                                signal.failure().getMessage())))
+                .subscribe(notification -> {
+                    if (notification.getParameter() != null)
+                        evict(notification.getParameter());
+                });
+    }
+
+    private void evictAll() {
+        buildingCache.evictAll();
+        roomCache.evictAll();
+    }
+
+    private static ConnectionFactory unpooled(R2dbcProperties properties) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate();
+        if (properties.getUsername() != null)
+            options.option(ConnectionFactoryOptions.USER, properties.getUsername());
+        if (properties.getPassword() != null)
+            options.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword());
+        return ConnectionFactories.get(options.build());
+    }
+
+    private static PostgresqlConnection unwrap(Connection connection) {
+        Object current = connection;
+        while (!(current instanceof PostgresqlConnection) && current instanceof Wrapped<?> wrapped)
+            current = wrapped.unwrap();
+        if (current instanceof PostgresqlConnection postgresqlConnection)
+            return postgresqlConnection;
+        throw new IllegalStateException("LISTEN needs a Postgres connection, got " + connection.getClass());
+    }
+
+    @Override
+    public void destroy() {
+        if (listener != null)
+            listener.dispose();
+    }
+}
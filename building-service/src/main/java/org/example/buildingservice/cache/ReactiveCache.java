@@ -0,0 +1,44 @@
+package org.example.buildingservice.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache for reactive loaders. Concurrent misses for the same key share one load,
+ * and empty results are not cached.
+ */
+public class ReactiveCache<K, V> {
+
+    private final AsyncCache<K, V> cache;
+
+    public ReactiveCache(long maximumSize, Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .buildAsync();
+    }
+
+    public Mono<V> get(K key, Function<K, Mono<V>> loader) {
+        return Mono.fromCompletionStage(() -> cache.get(key, (k, executor) -> loader.apply(k).toFuture()));
+    }
+
+    public void evict(K key) {
+        cache.synchronous().invalidate(key);
+    }
+
+    public void evictAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    public ReactiveCache<K, V> bindTo(MeterRegistry meterRegistry, String name) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), name);
+        return this;
+    }
+}
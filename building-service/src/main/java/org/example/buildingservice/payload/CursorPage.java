@@ -0,0 +1,26 @@
+package org.example.buildingservice.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class CursorPage<T> {
+    private List<T> content;
+    private String next;
+
+    /**
+     * A full page means there may be more rows, so the last id becomes the next cursor.
+     */
+    public static <T> CursorPage<T> of(List<T> content, int size, Function<T, Integer> idExtractor) {
+        String next = content.size() == size
+                ? Cursor.encodeId(idExtractor.apply(content.get(content.size() - 1)))
+                : null;
+        return new CursorPage<>(content, next);
+    }
+}
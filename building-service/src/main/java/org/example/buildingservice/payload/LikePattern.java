@@ -0,0 +1,25 @@
+package org.example.buildingservice.payload;
+
+/**
+ * Builds LIKE/ILIKE patterns from user input, escaping the wildcards so they match literally.
+ */
+public final class LikePattern {
+
+    private LikePattern() {
+    }
+
+    /**
+     * Returns a pattern matching values that contain {@code query}, or null for a blank query.
+     */
+    public static String contains(String query) {
+        if (query == null || query.isBlank())
+            return null;
+        return "%" + escape(query.trim()) + "%";
+    }
+
+    static String escape(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
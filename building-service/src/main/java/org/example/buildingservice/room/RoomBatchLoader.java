@@ -0,0 +1,120 @@
+package org.example.buildingservice.room;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Coalesces single-room lookups that arrive within a short window into one {@code = ANY(:ids)} query.
+ * Callers asking for the same id in the same window share one fetch.
+ */
+@Slf4j
+@Component
+public class RoomBatchLoader implements DisposableBean {
+
+    private final RoomRepository roomRepository;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final Duration timeout;
+    // not auto-cancelled, so the pipeline can resubscribe after a failure without losing queued lookups
+    private final Sinks.Many<PendingLoad> pendingLoads =
+            Sinks.many().multicast().onBackpressureBuffer(Queues.SMALL_BUFFER_SIZE, false);
+    private final DistributionSummary batchFillRatio;
+    private final DistributionSummary batchSize;
+    private volatile Disposable subscription;
+    private volatile boolean disposed;
+
+    public RoomBatchLoader(RoomRepository roomRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${building-service.room-loader.window:2ms}") Duration window,
+                           @Value("${building-service.room-loader.max-batch-size:256}") int maxBatchSize,
+                           @Value("${building-service.room-loader.timeout:5s}") Duration timeout) {
+        this.roomRepository = roomRepository;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.timeout = timeout;
+        this.batchFillRatio = DistributionSummary.builder("rooms.loader.batch.fill.ratio")
+                .description("Distinct room ids per batch relative to the maximum batch size")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("rooms.loader.batch.size")
+                .description("Lookups served per batch, duplicates included")
+                .register(meterRegistry);
+        start();
+    }
+
+    public Mono<RoomDto> load(Integer id) {
+        return Mono.defer(() -> {
+            PendingLoad pendingLoad = new PendingLoad(id, Sinks.one());
+            Sinks.EmitResult emitResult;
+            while ((emitResult = pendingLoads.tryEmitNext(pendingLoad)) == Sinks.EmitResult.FAIL_NON_SERIALIZED)
+                Thread.onSpinWait();
+            if (emitResult.isFailure())
+                return Mono.error(new IllegalStateException("Room " + id + " could not be queued for loading: " + emitResult));
+            return pendingLoad.result().asMono().timeout(timeout);
+        });
+    }
+
+    private void start() {
+        // onBackpressureBuffer keeps bufferTimeout from overflowing when a timer flush finds no demand
+        subscription = pendingLoads.asFlux()
+                .bufferTimeout(maxBatchSize, window)
+                .onBackpressureBuffer()
+                .flatMap(this::dispatch)
+                .subscribe(null, e -> {
+                    log.error("Room batch pipeline failed, resubscribing: {}", e.getMessage());
+                    if (!disposed)
+                        start();
+                });
+    }
+
+    private Mono<Void> dispatch(List<PendingLoad> batch) {
+        return Mono.defer(() -> query(batch))
+                .onErrorResume(e -> {
+                    log.error("Room batch of {} lookups failed: {}", batch.size(), e.getMessage());
+                    batch.forEach(pendingLoad -> pendingLoad.result().tryEmitError(e));
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> query(List<PendingLoad> batch) {
+        Map<Integer, List<Sinks.One<RoomDto>>> waiting = batch.stream()
+                .collect(Collectors.groupingBy(PendingLoad::id,
+                        Collectors.mapping(PendingLoad::result, Collectors.toList())));
+        batchSize.record(batch.size());
+        batchFillRatio.record((double) waiting.size() / maxBatchSize);
+
+        return roomRepository.getRoomsByIds(waiting.keySet().toArray(Integer[]::new))
+                .collectMap(RoomDto::getId)
+                .doOnNext(rooms -> waiting.forEach((id, results) -> {
+                    RoomDto room = rooms.get(id);
+                    results.forEach(result -> {
+                        if (room == null)
+                            result.tryEmitEmpty();
+                        else
+                            result.tryEmitValue(room);
+                    });
+                }))
+                .then();
+    }
+
+    @Override
+    public void destroy() {
+        disposed = true;
+        subscription.dispose();
+    }
+
+    private record PendingLoad(Integer id, Sinks.One<RoomDto> result) {
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.buildingservice.room;
+
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+public interface RoomBatchRepository {
+
+    /**
+     * Inserts the rooms with chunked multi-row INSERT statements and returns the generated ids in input order.
+     */
+    Flux<Integer> insertAll(List<Room> rooms);
+
+    /**
+     * Inserts or updates the rooms by (name, building_id) in chunks. One flag is returned per row actually written,
+     * true for an insert and false for an update; rooms whose area and floor already match are left untouched.
+     */
+    Flux<Boolean> upsertAll(List<Room> rooms);
+}
@@ -0,0 +1,88 @@
+package org.example.buildingservice.room;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+public class RoomBatchRepositoryImpl implements RoomBatchRepository {
+
+    private static final int BINDS_PER_ROW = 4;
+    // Postgres accepts at most 65535 bind parameters per statement
+    static final int MAX_CHUNK_SIZE = 65_535 / BINDS_PER_ROW;
+
+    private final DatabaseClient databaseClient;
+    private final int chunkSize;
+
+    public RoomBatchRepositoryImpl(DatabaseClient databaseClient,
+                                   @Value("${building-service.room-insert-chunk-size:500}") int chunkSize) {
+        if (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE)
+            throw new IllegalArgumentException("Room insert chunk size should be between 1 and " + MAX_CHUNK_SIZE + ", was " + chunkSize);
+        this.databaseClient = databaseClient;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public Flux<Integer> insertAll(List<Room> rooms) {
+        return Flux.fromIterable(rooms)
+                .buffer(chunkSize)
+                .concatMap(this::insertChunk);
+    }
+
+    @Override
+    public Flux<Boolean> upsertAll(List<Room> rooms) {
+        return Flux.fromIterable(rooms)
+                .buffer(chunkSize)
+                .concatMap(this::upsertChunk);
+    }
+
+    private Flux<Integer> insertChunk(List<Room> chunk) {
+        String sql = insertSql(chunk) + " RETURNING id";
+        return bindAll(databaseClient.sql(sql), chunk)
+                .map(row -> row.get("id", Integer.class))
+                .all();
+    }
+
+    private Flux<Boolean> upsertChunk(List<Room> chunk) {
+        String sql = insertSql(chunk) + """
+                 ON CONFLICT (name, building_id) DO UPDATE
+                SET area  = EXCLUDED.area,
+                    floor = EXCLUDED.floor
+                WHERE (room.area, room.floor) IS DISTINCT FROM (EXCLUDED.area, EXCLUDED.floor)
+                RETURNING (xmax = 0) AS inserted""";
+        return bindAll(databaseClient.sql(sql), chunk)
+                .map(row -> row.get("inserted", Boolean.class))
+                .all();
+    }
+
+    static String insertSql(List<Room> chunk) {
+        StringBuilder sql = new StringBuilder("INSERT INTO room (name, area, floor, building_id) VALUES ");
+        for (int i = 0; i < chunk.size(); i++) {
+            if (i > 0)
+                sql.append(", ");
+            sql.append("(:name").append(i)
+                    .append(", :area").append(i)
+                    .append(", :floor").append(i)
+                    .append(", :buildingId").append(i)
+                    .append(')');
+        }
+        return sql.toString();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindAll(DatabaseClient.GenericExecuteSpec spec, List<Room> chunk) {
+        for (int i = 0; i < chunk.size(); i++) {
+            Room room = chunk.get(i);
+            spec = bind(spec, "name" + i, room.getName(), String.class);
+            spec = bind(spec, "area" + i, room.getArea(), Double.class);
+            spec = bind(spec, "floor" + i, room.getFloor(), Integer.class);
+            spec = bind(spec, "buildingId" + i, room.getBuildingId(), Integer.class);
+        }
+        return spec;
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name,
+                                                          Object value, Class<?> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+}
@@ -3,12 +3,15 @@ package org.example.buildingservice.room;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.buildingservice.payload.ApiResponse;
+import org.example.buildingservice.payload.CursorPage;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @Slf4j
 @RestController
 @RequestMapping("/api/v1/rooms")
@@ -25,11 +28,31 @@ public class RoomController {
 
     }
 
+    @GetMapping(params = "after")
+    public Mono<CursorPage<Room>> getRoomsAfter(@RequestParam String after,
+                                                @RequestParam(defaultValue = "10") int size) {
+        return roomService.getRoomsAfter(after, size);
+    }
+
+    @GetMapping("/search")
+    public Mono<CursorPage<RoomDto>> searchRooms(@RequestParam(required = false) String q,
+                                                 @RequestParam(required = false) Double minArea,
+                                                 @RequestParam(required = false) Double maxArea,
+                                                 @RequestParam(required = false) Integer buildingId,
+                                                 @RequestParam(required = false) String after,
+                                                 @RequestParam(defaultValue = "10") int size) {
+        return roomService.searchRooms(q, minArea, maxArea, buildingId, after, size);
+    }
+
     @GetMapping("/{id}")
     public Mono<RoomDto> getRoomById(@PathVariable Integer id) {
         return roomService.getRoomById(id);
     }
 
+    @PostMapping("/batch")
+    public Flux<RoomDto> getRoomsByIds(@RequestBody List<Integer> ids) {
+        return roomService.getRoomsByIds(ids);
+    }
 
     @PostMapping
     public Mono<ResponseEntity<ApiResponse>> addRoom(@RequestBody RoomDto roomDto) {
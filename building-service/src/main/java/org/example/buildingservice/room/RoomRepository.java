@@ -1,12 +1,15 @@
 package org.example.buildingservice.room;
 
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Repository
-public interface RoomRepository extends ReactiveCrudRepository<Room, Integer> {
+public interface RoomRepository extends ReactiveCrudRepository<Room, Integer>, RoomBatchRepository,
+        RoomSearchRepository {
 
     String SELECT_QUERY = """
             SELECT r.id as id,
@@ -17,15 +20,86 @@ public interface RoomRepository extends ReactiveCrudRepository<Room, Integer> {
                    b.name as building_name
             FROM room r
                      LEFT JOIN building b ON b.id = r.building_id
-            where r.id = :id
             """;
 
-    @Query(SELECT_QUERY)
+    @Query(SELECT_QUERY + "where r.id = :id")
     Mono<RoomDto> getRoomById(Integer id);
 
+    @Query(SELECT_QUERY + "where r.id = ANY(:ids)")
+    Flux<RoomDto> getRoomsByIds(Integer[] ids);
+
+    /**
+     * Reserves the room's area on its building and inserts the room in one statement. Nothing is returned when
+     * the building does not exist or has no room left, and concurrent inserts serialize on the building row.
+     */
+    @Query("""
+            WITH reserved AS (
+                UPDATE building
+                SET used_area  = used_area + :area,
+                    room_count = room_count + 1
+                WHERE id = :buildingId
+                  AND used_area + :area <= area
+                RETURNING id
+            )
+            INSERT INTO room (name, area, floor, building_id)
+            SELECT :name, :area, :floor, reserved.id
+            FROM reserved
+            RETURNING *
+            """)
+    Mono<Room> insertWithinCapacity(String name, Double area, Integer floor, Integer buildingId);
+
+    @Query("SELECT * FROM room WHERE id = :id FOR UPDATE")
+    Mono<Room> findByIdForUpdate(Integer id);
+
+    @Modifying
+    @Query("""
+            WITH deleted AS (
+                DELETE FROM room
+                WHERE id = :id
+                RETURNING building_id, area
+            )
+            UPDATE building b
+            SET used_area  = b.used_area - deleted.area,
+                room_count = b.room_count - 1
+            FROM deleted
+            WHERE b.id = deleted.building_id
+            """)
+    Mono<Integer> deleteRoomById(Integer id);
+
+    /**
+     * Deletes the rooms of the given buildings that are not among the (building id, name) pairs to keep.
+     */
+    @Modifying
+    @Query("""
+            DELETE FROM room r
+            WHERE r.building_id = ANY(:buildingIds)
+              AND NOT EXISTS(SELECT 1
+                             FROM unnest(CAST(:keepBuildingIds AS int[]), CAST(:keepNames AS varchar[])) AS k(building_id, name)
+                             WHERE k.building_id = r.building_id
+                               AND k.name = r.name)
+            """)
+    Mono<Integer> deleteAllNotIn(Integer[] buildingIds, Integer[] keepBuildingIds, String[] keepNames);
+
+    @Modifying
+    @Query("""
+            DELETE FROM room
+            WHERE building_id IN (SELECT id FROM building WHERE NOT (name = ANY(:names)))
+            """)
+    Mono<Integer> deleteAllOfBuildingsNotNamed(String[] names);
+
+    @Query("""
+            SELECT * FROM room
+            ORDER BY id
+            LIMIT :size OFFSET :offset
+            """)
+    Flux<Room> findPage(long offset, int size);
+
     @Query("""
-            SELECT sum(area) from room r where r.building_id = :buildingId
+            SELECT * FROM room
+            WHERE id > :after
+            ORDER BY id
+            LIMIT :size
             """)
-    Mono<Double> getAreaAllRoomsByBuildingId(Integer buildingId);
+    Flux<Room> findAllAfter(int after, int size);
 
 }
@@ -0,0 +1,13 @@
+package org.example.buildingservice.room;
+
+import reactor.core.publisher.Flux;
+
+public interface RoomSearchRepository {
+
+    /**
+     * Keyset page of rooms whose name matches {@code pattern}, whose area is within the bounds and which belong to the
+     * building; null arguments do not filter. Only the given filters end up in the WHERE clause, so the planner can
+     * use the trigram, area and building indexes for exactly the predicates that apply.
+     */
+    Flux<RoomDto> search(String pattern, Double minArea, Double maxArea, Integer buildingId, int after, int size);
+}
@@ -0,0 +1,55 @@
+package org.example.buildingservice.room;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+public class RoomSearchRepositoryImpl implements RoomSearchRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public RoomSearchRepositoryImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Flux<RoomDto> search(String pattern, Double minArea, Double maxArea, Integer buildingId, int after, int size) {
+        return bind(databaseClient.sql(searchSql(pattern, minArea, maxArea, buildingId)), pattern, minArea, maxArea, buildingId)
+                .bind("after", after)
+                .bind("size", size)
+                .map(row -> RoomDto.builder()
+                        .id(row.get("id", Integer.class))
+                        .name(row.get("name", String.class))
+                        .area(row.get("area", Double.class))
+                        .floor(row.get("floor", Integer.class))
+                        .buildingId(row.get("building_id", Integer.class))
+                        .buildingName(row.get("building_name", String.class))
+                        .build())
+                .all();
+    }
+
+    static String searchSql(String pattern, Double minArea, Double maxArea, Integer buildingId) {
+        StringBuilder sql = new StringBuilder(RoomRepository.SELECT_QUERY).append("WHERE r.id > :after");
+        if (pattern != null)
+            sql.append(" AND r.name ILIKE :pattern");
+        if (minArea != null)
+            sql.append(" AND r.area >= :minArea");
+        if (maxArea != null)
+            sql.append(" AND r.area <= :maxArea");
+        if (buildingId != null)
+            sql.append(" AND r.building_id = :buildingId");
+        return sql.append(" ORDER BY r.id LIMIT :size").toString();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String pattern,
+                                                          Double minArea, Double maxArea, Integer buildingId) {
+        if (pattern != null)
+            spec = spec.bind("pattern", pattern);
+        if (minArea != null)
+            spec = spec.bind("minArea", minArea);
+        if (maxArea != null)
+            spec = spec.bind("maxArea", maxArea);
+        if (buildingId != null)
+            spec = spec.bind("buildingId", buildingId);
+        return spec;
+    }
+}
@@ -3,83 +3,163 @@ package org.example.buildingservice.room;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.buildingservice.building.BuildingRepository;
+import org.example.buildingservice.cache.CacheInvalidationBus;
+import org.example.buildingservice.cache.ReactiveCache;
 import org.example.buildingservice.exception.CustomBadRequestException;
 import org.example.buildingservice.exception.CustomGeneralException;
 import org.example.buildingservice.exception.ResourceNotFoundException;
 import org.example.buildingservice.exception.UniqueKeyException;
+import org.example.buildingservice.payload.Cursor;
+import org.example.buildingservice.payload.CursorPage;
+import org.example.buildingservice.payload.LikePattern;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RoomService {
 
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_SEARCH_SIZE = 1000;
+
     private final RoomRepository roomRepository;
     private final BuildingRepository buildingRepository;
+    private final RoomBatchLoader roomBatchLoader;
+    private final ReactiveCache<Integer, RoomDto> roomCache;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     public Flux<Room> getAllRooms(int page, int size) {
         if (page < 0 || size <= 0){
             return Flux.error(() -> new CustomBadRequestException("Page and size should not be less than 1"));
         }
-        return roomRepository.findAll()
-                .skip((long) page * size)
-                .take(size);
+        return roomRepository.findPage((long) page * size, size);
+    }
+
+    public Mono<CursorPage<Room>> getRoomsAfter(String after, int size) {
+        if (size <= 0) {
+            return Mono.error(() -> new CustomBadRequestException("Size should not be less than 1"));
+        }
+        return Mono.fromCallable(() -> Cursor.decodeId(after))
+                .flatMapMany(afterId -> roomRepository.findAllAfter(afterId, size))
+                .collectList()
+                .map(rooms -> CursorPage.of(rooms, size, Room::getId));
+    }
+
+    public Mono<CursorPage<RoomDto>> searchRooms(String query, Double minArea, Double maxArea, Integer buildingId,
+                                                 String after, int size) {
+        if (size <= 0 || size > MAX_SEARCH_SIZE || (minArea != null && maxArea != null && minArea > maxArea)) {
+            return Mono.error(() -> new CustomBadRequestException("Size should be between 1 and " + MAX_SEARCH_SIZE + " and minArea should not exceed maxArea"));
+        }
+        return Mono.fromCallable(() -> Cursor.decodeId(after))
+                .flatMapMany(afterId -> roomRepository.search(LikePattern.contains(query), minArea, maxArea, buildingId, afterId, size))
+                .collectList()
+                .map(rooms -> CursorPage.of(rooms, size, RoomDto::getId));
     }
 
     public Mono<RoomDto> getRoomById(Integer id) {
-        return roomRepository.getRoomById(id)
+        return roomCache.get(id, roomBatchLoader::load)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("Room", id)));
     }
 
-    public Mono<RoomDto> addRoom(RoomDto roomDto) {
-        return buildingRepository.findById(roomDto.getBuildingId())
-                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Building", roomDto.getBuildingId())))
-                .flatMap(building -> roomRepository.getAreaAllRoomsByBuildingId(building.getId())
-                        .defaultIfEmpty(0.0)
-                        .map(totalAreaOfRooms -> {
-                            if (totalAreaOfRooms + roomDto.getArea() > building.getArea())
-                                throw new CustomBadRequestException("Building's area is not enough for the rooms");
-                            return building;
-                        })
-                        .flatMap(building1 -> {
-                            Room room = convertFromDtoToRoom(roomDto);
-                            return roomRepository.save(room)
-                                    .onErrorResume(e -> {
-                                        if (e instanceof DuplicateKeyException) {
-                                            String errorMsg = "Room with the same name already exists.";
-                                            log.error(errorMsg);
-                                            throw new UniqueKeyException(errorMsg);
-                                        } else {
-                                            log.error(e.getMessage());
-                                            throw new CustomGeneralException();
-                                        }
-                                    })
-                                    .map(this::convertToRoomDto);
-                        })
-                );
-
+    public Flux<RoomDto> getRoomsByIds(List<Integer> ids) {
+        if (ids == null || ids.isEmpty())
+            return Flux.empty();
+        Integer[] distinctIds = ids.stream().distinct().toArray(Integer[]::new);
+        if (distinctIds.length > MAX_BATCH_SIZE)
+            return Flux.error(() -> new CustomBadRequestException("At most " + MAX_BATCH_SIZE + " rooms can be requested at once"));
+        return roomRepository.getRoomsByIds(distinctIds);
+    }
 
+    public Mono<RoomDto> addRoom(RoomDto roomDto) {
+        if (invalidArea(roomDto))
+            return Mono.error(() -> new CustomBadRequestException("Room area should not be negative"));
+        return roomRepository.insertWithinCapacity(roomDto.getName(), roomDto.getArea(), roomDto.getFloor(), roomDto.getBuildingId())
+                .onErrorMap(RoomService::mapSaveError)
+                .switchIfEmpty(Mono.defer(() -> rejectArea(roomDto.getBuildingId())))
+                .flatMap(savedRoom -> cacheInvalidationBus.roomChanged(savedRoom.getId()).thenReturn(savedRoom))
+                .map(this::convertToRoomDto);
     }
 
 
+    @Transactional
     public Mono<RoomDto> updateRoom(Integer id, RoomDto roomDto) {
-        return roomRepository.findById(id)
-                .flatMap(existingRoom -> {
-                    existingRoom.setName(roomDto.getName());
-                    existingRoom.setArea(roomDto.getArea());
-                    existingRoom.setFloor(roomDto.getFloor());
-                    existingRoom.setBuildingId(roomDto.getBuildingId());
-                    return roomRepository.save(existingRoom);
-                })
+        if (invalidArea(roomDto))
+            return Mono.error(() -> new CustomBadRequestException("Room area should not be negative"));
+        return roomRepository.findByIdForUpdate(id)
+                .flatMap(existingRoom -> moveArea(existingRoom, roomDto)
+                        .then(Mono.defer(() -> {
+                            existingRoom.setName(roomDto.getName());
+                            existingRoom.setArea(roomDto.getArea());
+                            existingRoom.setFloor(roomDto.getFloor());
+                            existingRoom.setBuildingId(roomDto.getBuildingId());
+                            return roomRepository.save(existingRoom)
+                                    .onErrorMap(RoomService::mapSaveError);
+                        })))
+                .flatMap(savedRoom -> cacheInvalidationBus.roomChanged(id).thenReturn(savedRoom))
                 .map(this::convertToRoomDto)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("Room", id)));
     }
 
     public Mono<Void> deleteRoom(Integer id) {
-        return roomRepository.deleteById(id);
+        return roomRepository.deleteRoomById(id)
+                .then(cacheInvalidationBus.roomChanged(id));
+    }
+
+    /**
+     * Keeps the buildings' used area in step with a room whose area or building changes.
+     */
+    private Mono<Void> moveArea(Room existingRoom, RoomDto roomDto) {
+        Integer oldBuildingId = existingRoom.getBuildingId();
+        Integer newBuildingId = roomDto.getBuildingId();
+        if (oldBuildingId.equals(newBuildingId)) {
+            double delta = roomDto.getArea() - existingRoom.getArea();
+            if (delta == 0)
+                return Mono.empty();
+            return buildingRepository.adjustUsedArea(newBuildingId, delta, 0)
+                    .flatMap(updated -> requireAdjusted(updated, newBuildingId));
+        }
+        Mono<Void> reserve = Mono.defer(() -> buildingRepository.adjustUsedArea(newBuildingId, roomDto.getArea(), 1))
+                .flatMap(updated -> requireAdjusted(updated, newBuildingId));
+        Mono<Void> release = Mono.defer(() -> buildingRepository.adjustUsedArea(oldBuildingId, -existingRoom.getArea(), -1))
+                .then();
+        // lock the two building rows in id order, so moves in opposite directions cannot deadlock
+        return newBuildingId < oldBuildingId
+                ? reserve.then(release)
+                : release.then(reserve);
+    }
+
+    private static boolean invalidArea(RoomDto roomDto) {
+        return roomDto.getArea() == null || roomDto.getArea() < 0;
+    }
+
+    private Mono<Void> requireAdjusted(int updated, Integer buildingId) {
+        return updated == 0 ? rejectArea(buildingId) : Mono.empty();
+    }
+
+    /**
+     * A capacity-checked write changed nothing, which means the building is either missing or full.
+     */
+    private <T> Mono<T> rejectArea(Integer buildingId) {
+        return buildingRepository.existsById(buildingId)
+                .flatMap(exists -> Mono.error(exists
+                        ? new CustomBadRequestException("Building's area is not enough for the rooms")
+                        : new ResourceNotFoundException("Building", buildingId)));
+    }
+
+    private static Throwable mapSaveError(Throwable e) {
+        if (e instanceof DuplicateKeyException) {
+            String errorMsg = "Room with the same name already exists.";
+            log.error(errorMsg);
+            return new UniqueKeyException(errorMsg);
+        }
+        log.error(e.getMessage());
+        return new CustomGeneralException();
     }
 
     private RoomDto convertToRoomDto(Room room) {
@@ -91,13 +171,4 @@ public class RoomService {
                 .buildingId(room.getBuildingId())
                 .build();
     }
-
-    private static Room convertFromDtoToRoom(RoomDto roomDto) {
-        return Room.builder()
-                .name(roomDto.getName())
-                .area(roomDto.getArea())
-                .floor(roomDto.getFloor())
-                .buildingId(roomDto.getBuildingId())
-                .build();
-    }
 }
@@ -59,6 +59,17 @@ public class BuildingControllerIT {
                 .expectBody(BuildingDto.class);
     }
 
+    @Test
+    void getBuildingByIdWithRooms() {
+        BDDMockito.given(buildingService.getBuildingWithRooms(1, 2))
+                .willReturn(Mono.just(buildingDto));
+
+        webTestClient.get().uri("/api/v1/buildings/1?include=rooms&floor=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BuildingDto.class);
+    }
+
     @Test
     void checkBuildingIfExist() {
         Mono<Boolean> exist = Mono.just(true);
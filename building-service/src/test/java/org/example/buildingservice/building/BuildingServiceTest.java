@@ -1,24 +1,31 @@
 package org.example.buildingservice.building;
 
+import org.example.buildingservice.cache.CacheInvalidationBus;
+import org.example.buildingservice.cache.ReactiveCache;
 import org.example.buildingservice.exception.CustomBadRequestException;
 import org.example.buildingservice.exception.ResourceNotFoundException;
 import org.example.buildingservice.exception.UniqueKeyException;
+import org.example.buildingservice.payload.Cursor;
+import org.example.buildingservice.payload.CursorPage;
 import org.example.buildingservice.room.RoomDto;
 import org.example.buildingservice.room.RoomRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DuplicateKeyException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.*;
 
 
@@ -34,6 +41,12 @@ public class BuildingServiceTest {
     @Mock
     private RoomRepository roomRepository;
 
+    @Spy
+    private ReactiveCache<Integer, Building> buildingCache = new ReactiveCache<>(100, Duration.ofMinutes(1));
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
 
     private final BuildingDto buildingDto = BuildingDto.builder().id(1).name("Building 1").area(1000.0).build();
     private final Building building = Building.builder().id(1).name("Building 1").area(1000.0).build();
@@ -46,7 +59,7 @@ public class BuildingServiceTest {
         Building building2 = new Building(2, "Building 2", 50.0);
         List<Building> buildingList = Arrays.asList(building1, building2);
         Flux<Building> buildingFlux = Flux.fromIterable(buildingList);
-        when(buildingRepository.findAll()).thenReturn(buildingFlux);
+        when(buildingRepository.findPage(0L, 2)).thenReturn(buildingFlux);
 
         // Act
         Flux<BuildingDto> result = buildingService.getAllBuildings(0, 2);
@@ -58,6 +71,38 @@ public class BuildingServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void testGetBuildingsAfterReturnsNextCursorWhenPageIsFull() {
+        Building building1 = new Building(3, "Building 3", 20.5);
+        Building building2 = new Building(4, "Building 4", 50.0);
+        when(buildingRepository.findAllAfter(2, 2)).thenReturn(Flux.just(building1, building2));
+
+        Mono<CursorPage<BuildingDto>> result = buildingService.getBuildingsAfter(Cursor.encodeId(2), 2);
+
+        StepVerifier.create(result)
+                .assertNext(page -> {
+                    assertEquals(2, page.getContent().size());
+                    assertEquals(4, Cursor.decodeId(page.getNext()));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetBuildingsAfterLastPageHasNoNextCursor() {
+        when(buildingRepository.findAllAfter(0, 2)).thenReturn(Flux.just(building));
+
+        StepVerifier.create(buildingService.getBuildingsAfter("", 2))
+                .assertNext(page -> assertNull(page.getNext()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetBuildingsAfterInvalidCursorShouldReturnError() {
+        StepVerifier.create(buildingService.getBuildingsAfter("not a cursor", 2))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+    }
+
     @Test
     public void testGetAllBuildingsInvalidPageShouldReturnError() {
         Flux<BuildingDto> result = buildingService.getAllBuildings(-1, 2);
@@ -102,6 +147,16 @@ public class BuildingServiceTest {
         verify(buildingRepository, times(1)).findById(id);
     }
 
+    @Test
+    void testGetBuildingByIdShouldBeServedFromCache() {
+        when(buildingRepository.findById(1)).thenReturn(Mono.just(building));
+
+        StepVerifier.create(buildingService.getBuildingById(1)).expectNext(buildingDto).verifyComplete();
+        StepVerifier.create(buildingService.getBuildingById(1)).expectNext(buildingDto).verifyComplete();
+
+        verify(buildingRepository, times(1)).findById(1);
+    }
+
     @Test
     public void testGetBuildingByIdFailure() {
         Integer id = 2;
@@ -115,6 +170,86 @@ public class BuildingServiceTest {
         verify(buildingRepository, times(1)).findById(id);
     }
 
+    @Test
+    void testSearchBuildingsShouldEscapeWildcardsAndPage() {
+        when(buildingRepository.search("%50\\%\\_off%", 100.0, null, 0, 1)).thenReturn(Flux.just(building));
+
+        StepVerifier.create(buildingService.searchBuildings(" 50%_off ", 100.0, null, null, 1))
+                .assertNext(page -> {
+                    assertEquals(List.of(buildingDto), page.getContent());
+                    assertEquals(Cursor.encodeId(1), page.getNext());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testSearchBuildingsAndInvertedAreaRangeShouldReturnError() {
+        StepVerifier.create(buildingService.searchBuildings("a", 10.0, 5.0, null, 10))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+    }
+
+    @Test
+    void testSearchBuildingsAndTooLargeSizeShouldReturnError() {
+        StepVerifier.create(buildingService.searchBuildings("a", null, null, null, 1001))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+        verify(buildingRepository, never()).search(any(), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testSearchByFreeArea() {
+        BuildingFreeAreaDto free = new BuildingFreeAreaDto(1, "Building 1", 1000.0, 400.0, 600.0, 3);
+        when(buildingRepository.findByFreeArea(500.0, 2, 10)).thenReturn(Flux.just(free));
+
+        StepVerifier.create(buildingService.searchByFreeArea(500.0, 2, 10))
+                .expectNext(free)
+                .verifyComplete();
+    }
+
+    @Test
+    void testSearchByFreeAreaAndNegativeMinShouldReturnError() {
+        StepVerifier.create(buildingService.searchByFreeArea(-1, null, 10))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+        verify(buildingRepository, never()).findByFreeArea(anyDouble(), any(), anyInt());
+    }
+
+    @Test
+    void getBuildingWithRoomsShouldFoldRowsIntoRooms() {
+        when(buildingRepository.getBuildingWithRooms(1, null)).thenReturn(Flux.just(
+                new BuildingRoomRow(1, "Building 1", 1000.0, 10, "Room 10", 20.0, 1),
+                new BuildingRoomRow(1, "Building 1", 1000.0, 11, "Room 11", 30.0, 2)));
+
+        StepVerifier.create(buildingService.getBuildingWithRooms(1, null))
+                .assertNext(b -> {
+                    assertEquals("Building 1", b.getName());
+                    assertEquals(2, b.getRooms().size());
+                    assertEquals(2, b.getRooms().get(1).getFloor());
+                    assertEquals("Building 1", b.getRooms().get(1).getBuildingName());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getBuildingWithRoomsWithoutRoomsShouldReturnEmptyRooms() {
+        when(buildingRepository.getBuildingWithRooms(1, 3)).thenReturn(Flux.just(
+                BuildingRoomRow.builder().buildingId(1).buildingName("Building 1").buildingArea(1000.0).build()));
+
+        StepVerifier.create(buildingService.getBuildingWithRooms(1, 3))
+                .assertNext(b -> assertEquals(0, b.getRooms().size()))
+                .verifyComplete();
+    }
+
+    @Test
+    void getBuildingWithRoomsShouldThrowResourceNotFoundException() {
+        when(buildingRepository.getBuildingWithRooms(2, null)).thenReturn(Flux.empty());
+
+        StepVerifier.create(buildingService.getBuildingWithRooms(2, null))
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+    }
+
     @Test
     void addBuildingAndShouldReturnBuildingDto() {
 
@@ -129,7 +264,8 @@ public class BuildingServiceTest {
                 )
         );
         when(buildingRepository.save(any(Building.class))).thenReturn(Mono.just(building));
-        when(roomRepository.saveAll(anyList())).thenReturn(Flux.empty());
+        when(roomRepository.insertAll(anyList())).thenReturn(Flux.empty());
+        when(buildingRepository.adjustUsedArea(1, 200.0, 1)).thenReturn(Mono.just(1));
 
         Mono<BuildingDto> actualBuilding = buildingService.addBuilding(buildingDto);
 
@@ -138,7 +274,20 @@ public class BuildingServiceTest {
                 .expectComplete()
                 .verify();
         verify(buildingRepository).save(any(Building.class));
-        verify(roomRepository).saveAll(anyList());
+        verify(roomRepository).insertAll(anyList());
+        verify(buildingRepository).adjustUsedArea(1, 200.0, 1);
+    }
+
+    @Test
+    void addBuildingWithRoomsShouldReturnErrorWhenUsedAreaIsNotAdjusted() {
+        buildingDto.setRooms(List.of(RoomDto.builder().name("Room 1").buildingId(1).floor(2).area(200.0).build()));
+        when(buildingRepository.save(any(Building.class))).thenReturn(Mono.just(building));
+        when(roomRepository.insertAll(anyList())).thenReturn(Flux.empty());
+        when(buildingRepository.adjustUsedArea(1, 200.0, 1)).thenReturn(Mono.just(0));
+
+        StepVerifier.create(buildingService.addBuilding(buildingDto))
+                .expectError(CustomBadRequestException.class)
+                .verify();
     }
 
     @Test
@@ -153,7 +302,7 @@ public class BuildingServiceTest {
                 .expectError(CustomBadRequestException.class)
                 .verify();
 
-        verify(roomRepository, never()).saveAll(anyList());
+        verify(roomRepository, never()).insertAll(anyList());
     }
     @Test
     void addBuildingAndShouldThrowUniqueKeyExceptionAndWhenBuildingWithTheSameNameAlreadyExists() {
@@ -171,8 +320,8 @@ public class BuildingServiceTest {
 
     @Test
     void updateBuildingAndShouldReturnBuildingDto() {
-        when(buildingRepository.findById(1)).thenReturn(Mono.just(building));
-        when(buildingRepository.save(any(Building.class))).thenReturn(Mono.just(building));
+        when(buildingRepository.updateWithinUsage(1, buildingDto.getName(), buildingDto.getArea())).thenReturn(Mono.just(building));
+        when(cacheInvalidationBus.buildingChanged(1)).thenReturn(Mono.empty());
 
         Mono<BuildingDto> actualBuilding = buildingService.updateBuilding(1, buildingDto);
 
@@ -180,27 +329,40 @@ public class BuildingServiceTest {
                 .assertNext(b -> assertEquals(buildingDto.getName(), b.getName()))
                 .expectComplete()
                 .verify();
-        verify(buildingRepository).findById(1);
-        verify(buildingRepository).save(any(Building.class));
+        verify(buildingRepository).updateWithinUsage(1, buildingDto.getName(), buildingDto.getArea());
+        verify(cacheInvalidationBus).buildingChanged(1);
     }
 
     @Test
     public void updateBuildingAndShouldThrowResourceNotFoundException() {
         Integer id = 1;
 
-        when(buildingRepository.findById(id)).thenReturn(Mono.empty());
+        when(buildingRepository.updateWithinUsage(id, buildingDto.getName(), buildingDto.getArea())).thenReturn(Mono.empty());
+        when(buildingRepository.existsById(id)).thenReturn(Mono.just(false));
 
         StepVerifier.create(buildingService.updateBuilding(id, buildingDto))
                 .expectError(ResourceNotFoundException.class)
                 .verify();
     }
 
+    @Test
+    public void updateBuildingBelowUsedAreaShouldThrowCustomBadRequestException() {
+        when(buildingRepository.updateWithinUsage(1, buildingDto.getName(), buildingDto.getArea())).thenReturn(Mono.empty());
+        when(buildingRepository.existsById(1)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(buildingService.updateBuilding(1, buildingDto))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+        verify(cacheInvalidationBus, never()).buildingChanged(anyInt());
+    }
+
     @Test
     public void testDeleteBuilding() {
         // Given
         Integer id = 1;
         Mono<Void> voidMono = Mono.empty();
         when(buildingRepository.deleteById(id)).thenReturn(voidMono);
+        when(cacheInvalidationBus.buildingChanged(id)).thenReturn(Mono.empty());
 
         // When
         Mono<Boolean> result = buildingService.deleteBuilding(id);
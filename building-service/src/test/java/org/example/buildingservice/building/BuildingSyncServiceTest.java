@@ -0,0 +1,181 @@
+package org.example.buildingservice.building;
+
+import org.example.buildingservice.cache.CacheInvalidationBus;
+import org.example.buildingservice.exception.CustomBadRequestException;
+import org.example.buildingservice.room.RoomDto;
+import org.example.buildingservice.room.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BuildingSyncServiceTest {
+
+    @Mock
+    private BuildingRepository buildingRepository;
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    private BuildingSyncService buildingSyncService;
+
+    @BeforeEach
+    void setUp() {
+        buildingSyncService = new BuildingSyncService(buildingRepository, roomRepository, transactionalOperator,
+                cacheInvalidationBus, 500);
+        lenient().when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(cacheInvalidationBus.allChanged()).thenReturn(Mono.empty());
+        lenient().when(buildingRepository.applyAreas(any(), any())).thenReturn(Mono.just(0));
+    }
+
+    @Test
+    void syncShouldCountInsertedUpdatedUnchangedAndDeleted() {
+        BuildingDto first = new BuildingDto(null, "Building 1", 1000.0, List.of(
+                RoomDto.builder().name("Room 1").area(10.0).floor(1).build(),
+                RoomDto.builder().name("Room 2").area(20.0).floor(1).build()));
+        BuildingDto second = new BuildingDto(null, "Building 2", 500.0);
+        when(buildingRepository.upsertAll(anyList())).thenReturn(Flux.just(true));
+        when(buildingRepository.findAllByNames(any())).thenReturn(Flux.just(
+                new Building(1, "Building 1", 1000.0),
+                new Building(2, "Building 2", 500.0)));
+        when(roomRepository.upsertAll(anyList())).thenReturn(Flux.just(false));
+        when(roomRepository.deleteAllNotIn(any(), any(), any())).thenReturn(Mono.just(3));
+        when(buildingRepository.findOverfilledNames(new Integer[]{1})).thenReturn(Flux.empty());
+        when(buildingRepository.recomputeUsage(new Integer[]{1})).thenReturn(Mono.just(1));
+
+        StepVerifier.create(buildingSyncService.sync(Flux.just(first, second), false))
+                .assertNext(result -> {
+                    assertEquals(new SyncCountsDto(1, 0, 1, 0), result.getBuildings());
+                    assertEquals(new SyncCountsDto(0, 1, 1, 3), result.getRooms());
+                })
+                .verifyComplete();
+        verify(buildingRepository, never()).deleteAllNotNamed(any());
+        verify(cacheInvalidationBus).allChanged();
+    }
+
+    @Test
+    void syncShouldInvalidateCachesAfterEveryChunk() {
+        buildingSyncService = new BuildingSyncService(buildingRepository, roomRepository, transactionalOperator,
+                cacheInvalidationBus, 1);
+        when(buildingRepository.upsertAll(anyList())).thenReturn(Flux.just(true));
+        when(buildingRepository.findAllByNames(any())).thenReturn(Flux.empty());
+
+        StepVerifier.create(buildingSyncService.sync(Flux.just(
+                        new BuildingDto(null, "Building 1", 1000.0),
+                        new BuildingDto(null, "Building 2", 500.0)), false))
+                .assertNext(result -> assertEquals(new SyncCountsDto(2, 0, 0, 0), result.getBuildings()))
+                .verifyComplete();
+        verify(cacheInvalidationBus, times(2)).allChanged();
+    }
+
+    @Test
+    void syncWithRoomsExceedingBuildingAreaShouldReturnError() {
+        BuildingDto building = new BuildingDto(null, "Building 1", 100.0, List.of(
+                RoomDto.builder().name("Room 1").area(80.0).floor(1).build(),
+                RoomDto.builder().name("Room 2").area(40.0).floor(1).build()));
+        when(buildingRepository.upsertAll(anyList())).thenReturn(Flux.just(false));
+        when(buildingRepository.findAllByNames(any())).thenReturn(Flux.just(new Building(1, "Building 1", 100.0)));
+        when(roomRepository.upsertAll(anyList())).thenReturn(Flux.just(true, true));
+        when(roomRepository.deleteAllNotIn(any(), any(), any())).thenReturn(Mono.just(0));
+        when(buildingRepository.findOverfilledNames(new Integer[]{1})).thenReturn(Flux.just("Building 1"));
+
+        StepVerifier.create(buildingSyncService.sync(Flux.just(building), false))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+        verify(buildingRepository, never()).recomputeUsage(any());
+        verify(cacheInvalidationBus, never()).allChanged();
+    }
+
+    @Test
+    void syncShrinkingBuildingWithItsRoomsShouldSetTheAreaAfterTheRooms() {
+        BuildingDto building = new BuildingDto(null, "Building 1", 50.0, List.of(
+                RoomDto.builder().name("Room 1").area(40.0).floor(1).build()));
+        when(buildingRepository.upsertAll(anyList())).thenReturn(Flux.just(false));
+        when(buildingRepository.findAllByNames(any())).thenReturn(Flux.just(new Building(1, "Building 1", 80.0)));
+        when(roomRepository.upsertAll(anyList())).thenReturn(Flux.just(false));
+        when(roomRepository.deleteAllNotIn(any(), any(), any())).thenReturn(Mono.just(0));
+        when(buildingRepository.findOverfilledNames(new Integer[]{1})).thenReturn(Flux.empty());
+        when(buildingRepository.recomputeUsage(new Integer[]{1})).thenReturn(Mono.just(1));
+        when(buildingRepository.applyAreas(new String[]{"Building 1"}, new Double[]{50.0})).thenReturn(Mono.just(1));
+
+        StepVerifier.create(buildingSyncService.sync(Flux.just(building), false))
+                .assertNext(result -> assertEquals(new SyncCountsDto(0, 1, 0, 0), result.getBuildings()))
+                .verifyComplete();
+        InOrder order = inOrder(buildingRepository, roomRepository);
+        order.verify(buildingRepository).upsertAll(anyList());
+        order.verify(roomRepository).upsertAll(anyList());
+        order.verify(buildingRepository).recomputeUsage(new Integer[]{1});
+        order.verify(buildingRepository).applyAreas(new String[]{"Building 1"}, new Double[]{50.0});
+    }
+
+    @Test
+    void syncShrinkingBuildingBelowItsKeptRoomsShouldReturnError() {
+        when(buildingRepository.upsertAll(anyList())).thenReturn(Flux.just(false));
+        when(buildingRepository.findAllByNames(any())).thenReturn(Flux.just(new Building(1, "Building 1", 80.0)));
+        when(buildingRepository.applyAreas(any(), any())).thenReturn(Mono.error(new DataIntegrityViolationException(
+                "violates check constraint \"ck_building_used_area_within_area\"")));
+
+        StepVerifier.create(buildingSyncService.sync(Flux.just(new BuildingDto(null, "Building 1", 10.0)), false))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+        verify(cacheInvalidationBus, never()).allChanged();
+    }
+
+    @Test
+    void syncWithPruneShouldDeleteMissingBuildings() {
+        when(buildingRepository.upsertAll(anyList())).thenReturn(Flux.empty());
+        when(buildingRepository.findAllByNames(any())).thenReturn(Flux.just(new Building(1, "Building 1", 1000.0)));
+        when(roomRepository.deleteAllOfBuildingsNotNamed(new String[]{"Building 1"})).thenReturn(Mono.just(4));
+        when(buildingRepository.deleteAllNotNamed(new String[]{"Building 1"})).thenReturn(Mono.just(2));
+
+        StepVerifier.create(buildingSyncService.sync(Flux.just(new BuildingDto(null, "Building 1", 1000.0)), true))
+                .assertNext(result -> {
+                    assertEquals(new SyncCountsDto(0, 0, 1, 2), result.getBuildings());
+                    assertEquals(new SyncCountsDto(0, 0, 0, 4), result.getRooms());
+                })
+                .verifyComplete();
+        verify(roomRepository, never()).upsertAll(anyList());
+    }
+
+    @Test
+    void syncWithPruneAndEmptyInputShouldReturnError() {
+        StepVerifier.create(buildingSyncService.sync(Flux.empty(), true))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+        verify(buildingRepository, never()).deleteAllNotNamed(any());
+    }
+
+    @Test
+    void syncWithoutAreaShouldReturnError() {
+        StepVerifier.create(buildingSyncService.sync(Flux.just(new BuildingDto(null, "Building 1", null)), false))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+        verify(buildingRepository, never()).upsertAll(anyList());
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.buildingservice.room;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RoomBatchLoaderTest {
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RoomBatchLoader roomBatchLoader;
+
+    private final RoomDto room1 = RoomDto.builder().id(1).name("Room 1").buildingId(1).build();
+    private final RoomDto room2 = RoomDto.builder().id(2).name("Room 2").buildingId(1).build();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        roomBatchLoader = new RoomBatchLoader(roomRepository, meterRegistry, Duration.ofMillis(50), 4, Duration.ofMillis(500));
+    }
+
+    @AfterEach
+    void tearDown() {
+        roomBatchLoader.destroy();
+    }
+
+    @Test
+    void concurrentLoadsShouldShareOneQuery() {
+        when(roomRepository.getRoomsByIds(any())).thenReturn(Flux.just(room1, room2));
+
+        Mono<List<RoomDto>> rooms = Flux.merge(
+                        roomBatchLoader.load(1),
+                        roomBatchLoader.load(2),
+                        roomBatchLoader.load(1))
+                .collectList();
+
+        StepVerifier.create(rooms)
+                .assertNext(result -> assertEquals(3, result.size()))
+                .verifyComplete();
+        verify(roomRepository, times(1)).getRoomsByIds(argThat(ids ->
+                Arrays.asList(ids).containsAll(List.of(1, 2)) && ids.length == 2));
+        assertEquals(1, meterRegistry.get("rooms.loader.batch.fill.ratio").summary().count());
+        assertEquals(0.5, meterRegistry.get("rooms.loader.batch.fill.ratio").summary().mean());
+    }
+
+    @Test
+    void missingRoomShouldCompleteEmpty() {
+        when(roomRepository.getRoomsByIds(any())).thenReturn(Flux.empty());
+
+        StepVerifier.create(roomBatchLoader.load(3))
+                .verifyComplete();
+    }
+
+    @Test
+    void failedBatchShouldFailEveryWaiter() {
+        when(roomRepository.getRoomsByIds(any())).thenReturn(Flux.error(new IllegalStateException("db down")));
+
+        StepVerifier.create(roomBatchLoader.load(1))
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    @Test
+    void loaderShouldKeepServingAfterAFailedBatch() {
+        when(roomRepository.getRoomsByIds(any()))
+                .thenThrow(new IllegalStateException("pool exhausted"))
+                .thenReturn(Flux.just(room1));
+
+        StepVerifier.create(roomBatchLoader.load(1))
+                .expectError(IllegalStateException.class)
+                .verify();
+        StepVerifier.create(roomBatchLoader.load(1))
+                .expectNext(room1)
+                .verifyComplete();
+    }
+
+    @Test
+    void unansweredLoadShouldTimeOut() {
+        when(roomRepository.getRoomsByIds(any())).thenReturn(Flux.never());
+
+        StepVerifier.create(roomBatchLoader.load(1))
+                .expectError(TimeoutException.class)
+                .verify();
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.buildingservice.room;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RoomBatchRepositoryImplTest {
+
+    @Mock
+    private DatabaseClient databaseClient;
+    @Mock
+    private DatabaseClient.GenericExecuteSpec spec;
+    @Mock
+    private RowsFetchSpec<Integer> fetchSpec;
+
+    @Test
+    void insertAllShouldSendOneStatementPerChunk() {
+        when(databaseClient.sql(anyString())).thenReturn(spec);
+        when(spec.bind(anyString(), any())).thenReturn(spec);
+        doReturn(fetchSpec).when(spec).map(any(Function.class));
+        when(fetchSpec.all()).thenReturn(Flux.just(11, 12), Flux.just(13));
+        RoomBatchRepositoryImpl repository = new RoomBatchRepositoryImpl(databaseClient, 2);
+
+        StepVerifier.create(repository.insertAll(List.of(room("A"), room("B"), room("C"))))
+                .expectNext(11, 12, 13)
+                .verifyComplete();
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(databaseClient, times(2)).sql(sql.capture());
+        assertEquals("INSERT INTO room (name, area, floor, building_id) VALUES "
+                + "(:name0, :area0, :floor0, :buildingId0), (:name1, :area1, :floor1, :buildingId1) RETURNING id", sql.getAllValues().get(0));
+        assertEquals("INSERT INTO room (name, area, floor, building_id) VALUES "
+                + "(:name0, :area0, :floor0, :buildingId0) RETURNING id", sql.getAllValues().get(1));
+        verify(spec).bind("name1", "B");
+        verify(spec).bind("name0", "C");
+    }
+
+    @Test
+    void chunkSizeOutsideBindLimitShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new RoomBatchRepositoryImpl(databaseClient, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new RoomBatchRepositoryImpl(databaseClient, RoomBatchRepositoryImpl.MAX_CHUNK_SIZE + 1));
+    }
+
+    private static Room room(String name) {
+        return Room.builder().name(name).area(10.0).floor(1).buildingId(1).build();
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.buildingservice.room;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RoomSearchRepositoryImplTest {
+
+    @Mock
+    private DatabaseClient databaseClient;
+    @Mock
+    private DatabaseClient.GenericExecuteSpec spec;
+    @Mock
+    private RowsFetchSpec<RoomDto> fetchSpec;
+
+    @Test
+    void searchSqlShouldOnlyContainGivenFilters() {
+        String sql = RoomSearchRepositoryImpl.searchSql("%Room%", null, 50.0, null);
+
+        assertTrue(sql.contains("r.name ILIKE :pattern"));
+        assertTrue(sql.contains("r.area <= :maxArea"));
+        assertFalse(sql.contains(":minArea"));
+        assertFalse(sql.contains(":buildingId"));
+        assertFalse(sql.contains("IS NULL"));
+    }
+
+    @Test
+    void searchShouldBindOnlyGivenFilters() {
+        RoomDto room = RoomDto.builder().id(5).name("Room 5").build();
+        when(databaseClient.sql(anyString())).thenReturn(spec);
+        when(spec.bind(anyString(), any())).thenReturn(spec);
+        doReturn(fetchSpec).when(spec).map(any(Function.class));
+        when(fetchSpec.all()).thenReturn(Flux.just(room));
+
+        StepVerifier.create(new RoomSearchRepositoryImpl(databaseClient).search(null, 10.0, null, 3, 0, 20))
+                .expectNext(room)
+                .verifyComplete();
+        verify(spec).bind("minArea", 10.0);
+        verify(spec).bind("buildingId", 3);
+        verify(spec).bind("size", 20);
+        verify(spec, never()).bind(eq("pattern"), any());
+        verify(spec, never()).bind(eq("maxArea"), any());
+    }
+}
@@ -1,23 +1,35 @@
 package org.example.buildingservice.room;
 
-import org.example.buildingservice.building.Building;
 import org.example.buildingservice.building.BuildingRepository;
+import org.example.buildingservice.cache.CacheInvalidationBus;
+import org.example.buildingservice.cache.ReactiveCache;
 import org.example.buildingservice.exception.CustomBadRequestException;
 import org.example.buildingservice.exception.ResourceNotFoundException;
 import org.example.buildingservice.exception.UniqueKeyException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DuplicateKeyException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -30,6 +42,15 @@ public class RoomServiceTest {
     @Mock
     private BuildingRepository buildingRepository;
 
+    @Mock
+    private RoomBatchLoader roomBatchLoader;
+
+    @Spy
+    private ReactiveCache<Integer, RoomDto> roomCache = new ReactiveCache<>(100, Duration.ofMinutes(1));
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
     @InjectMocks
     private RoomService roomService;
 
@@ -63,7 +84,7 @@ public class RoomServiceTest {
 
     @Test
     void testGetAllRooms() {
-        when(roomRepository.findAll())
+        when(roomRepository.findPage(0L, 1))
                 .thenReturn(Flux.just(room));
 
         Flux<Room> result = roomService.getAllRooms(0, 1);
@@ -82,9 +103,18 @@ public class RoomServiceTest {
                 .verify();
     }
 
+    @Test
+    void testSearchRooms() {
+        when(roomRepository.search("%Room%", null, null, BUILDING_ID, 0, 10)).thenReturn(Flux.just(roomDto));
+
+        StepVerifier.create(roomService.searchRooms("Room", null, null, BUILDING_ID, null, 10))
+                .expectNextMatches(page -> page.getContent().equals(List.of(roomDto)) && page.getNext() == null)
+                .verifyComplete();
+    }
+
     @Test
     void testGetRoomById() {
-        when(roomRepository.getRoomById(ROOM_ID))
+        when(roomBatchLoader.load(ROOM_ID))
                 .thenReturn(Mono.just(roomDto));
 
         Mono<RoomDto> result = roomService.getRoomById(ROOM_ID);
@@ -98,9 +128,19 @@ public class RoomServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void testGetRoomByIdShouldBeServedFromCache() {
+        when(roomBatchLoader.load(ROOM_ID)).thenReturn(Mono.just(roomDto));
+
+        StepVerifier.create(roomService.getRoomById(ROOM_ID)).expectNext(roomDto).verifyComplete();
+        StepVerifier.create(roomService.getRoomById(ROOM_ID)).expectNext(roomDto).verifyComplete();
+
+        verify(roomBatchLoader, times(1)).load(ROOM_ID);
+    }
+
     @Test
     void testGetRoomByIdAndShouldThrowResourceNotFoundException() {
-        when(roomRepository.getRoomById(ROOM_ID)).thenReturn(Mono.empty());
+        when(roomBatchLoader.load(ROOM_ID)).thenReturn(Mono.empty());
         Mono<RoomDto> result = roomService.getRoomById(ROOM_ID);
         StepVerifier.create(result)
                 .expectError(ResourceNotFoundException.class)
@@ -108,34 +148,55 @@ public class RoomServiceTest {
     }
 
     @Test
-    void testAddRoom() {
+    void testGetRoomsByIdsQueriesDistinctIdsOnce() {
+        when(roomRepository.getRoomsByIds(new Integer[]{ROOM_ID, 2}))
+                .thenReturn(Flux.just(roomDto));
 
-        Building building = Building.builder()
-                .id(1)
-                .name("Test Building")
-                .area(1000.0)
-                .build();
+        StepVerifier.create(roomService.getRoomsByIds(List.of(ROOM_ID, 2, ROOM_ID)))
+                .expectNext(roomDto)
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetRoomsByIdsAndTooManyIdsShouldThrowException() {
+        List<Integer> ids = IntStream.rangeClosed(1, 1001).boxed().toList();
+
+        StepVerifier.create(roomService.getRoomsByIds(ids))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+    }
+
+    @Test
+    void testGetRoomsByIdsChecksSizeAfterDeduplication() {
+        List<Integer> ids = IntStream.rangeClosed(1, 1000).boxed()
+                .flatMap(id -> Stream.of(id, id))
+                .toList();
+        when(roomRepository.getRoomsByIds(IntStream.rangeClosed(1, 1000).boxed().toArray(Integer[]::new)))
+                .thenReturn(Flux.just(roomDto));
+
+        StepVerifier.create(roomService.getRoomsByIds(ids))
+                .expectNext(roomDto)
+                .verifyComplete();
+    }
 
-        Mono<Building> buildingMono = Mono.just(building);
-        when(buildingRepository.findById(1)).thenReturn(buildingMono);
-        when(roomRepository.getAreaAllRoomsByBuildingId(1)).thenReturn(Mono.just(70.0));
-        when(roomRepository.save(any(Room.class))).thenReturn(Mono.just(Room.builder().id(1).build()));
+    @Test
+    void testAddRoom() {
+        when(roomRepository.insertWithinCapacity(ROOM_NAME, ROOM_AREA, ROOM_FLOOR, BUILDING_ID))
+                .thenReturn(Mono.just(room));
+        when(cacheInvalidationBus.roomChanged(ROOM_ID)).thenReturn(Mono.empty());
 
         StepVerifier.create(roomService.addRoom(roomDto))
                 .expectNextMatches(result -> result.getId() == 1)
                 .verifyComplete();
-        verify(roomRepository).save(any(Room.class));
+        verify(buildingRepository, never()).existsById(anyInt());
     }
 
     @Test
     public void testAddRoomAndBuildingNotFound() {
-        // Given
-        RoomDto roomDto = new RoomDto();
-        roomDto.setBuildingId(0);
-        roomDto.setArea(100.0);
+        when(roomRepository.insertWithinCapacity(ROOM_NAME, ROOM_AREA, ROOM_FLOOR, BUILDING_ID))
+                .thenReturn(Mono.empty());
+        when(buildingRepository.existsById(BUILDING_ID)).thenReturn(Mono.just(false));
 
-        // When
-        when(buildingRepository.findById(anyInt())).thenReturn(Mono.empty());
         StepVerifier.create(roomService.addRoom(roomDto))
                 .expectError(ResourceNotFoundException.class)
                 .verify();
@@ -143,19 +204,9 @@ public class RoomServiceTest {
 
     @Test
     public void testAddRoomAndNotEnoughArea() {
-        // Given
-        Integer buildingId = 1;
-        Building building = new Building();
-        building.setId(buildingId);
-        building.setArea(1000.0);
-
-        RoomDto roomDto = new RoomDto();
-        roomDto.setBuildingId(buildingId);
-        roomDto.setArea(9999.0);
-
-        // When
-        when(buildingRepository.findById(buildingId)).thenReturn(Mono.just(building));
-        when(roomRepository.getAreaAllRoomsByBuildingId(buildingId)).thenReturn(Mono.just(999.0));
+        when(roomRepository.insertWithinCapacity(ROOM_NAME, ROOM_AREA, ROOM_FLOOR, BUILDING_ID))
+                .thenReturn(Mono.empty());
+        when(buildingRepository.existsById(BUILDING_ID)).thenReturn(Mono.just(true));
 
         StepVerifier.create(roomService.addRoom(roomDto))
                 .expectError(CustomBadRequestException.class)
@@ -164,19 +215,8 @@ public class RoomServiceTest {
 
     @Test
     public void testAddRoomAndDuplicateName() {
-        // Given
-        RoomDto roomDto = new RoomDto();
-        roomDto.setBuildingId(1);
-        roomDto.setArea(100.0);
-        Integer buildingId = 1;
-        Building building = new Building();
-        building.setId(buildingId);
-        building.setArea(1000.0);
-
-        // When
-        when(buildingRepository.findById(buildingId)).thenReturn(Mono.just(building));
-        when(roomRepository.getAreaAllRoomsByBuildingId(roomDto.getBuildingId())).thenReturn(Mono.just(0.0));
-        when(roomRepository.save(any(Room.class))).thenReturn(Mono.error(new DuplicateKeyException(any())));
+        when(roomRepository.insertWithinCapacity(ROOM_NAME, ROOM_AREA, ROOM_FLOOR, BUILDING_ID))
+                .thenReturn(Mono.error(new DuplicateKeyException("duplicate")));
 
         StepVerifier.create(roomService.addRoom(roomDto))
                 .expectError(UniqueKeyException.class)
@@ -186,23 +226,103 @@ public class RoomServiceTest {
 
     @Test
     void testUpdateRoom() {
-        Mono<Room> roomMono = Mono.just(room);
-        when(roomRepository.findById(1)).thenReturn(roomMono);
+        when(roomRepository.findByIdForUpdate(1)).thenReturn(Mono.just(room));
         when(roomRepository.save(any(Room.class))).thenReturn(Mono.just(room));
+        when(cacheInvalidationBus.roomChanged(1)).thenReturn(Mono.empty());
 
         StepVerifier.create(roomService.updateRoom(1, roomDto))
                 .expectNextMatches(result -> result.getId() == 1)
                 .verifyComplete();
         verify(roomRepository).save(any(Room.class));
+        verify(buildingRepository, never()).adjustUsedArea(anyInt(), anyDouble(), anyInt());
+    }
+
+    @Test
+    void testUpdateRoomAndBiggerAreaShouldReserveDifference() {
+        Room existingRoom = Room.builder().id(ROOM_ID).name(ROOM_NAME).area(60.0).floor(ROOM_FLOOR).buildingId(BUILDING_ID).build();
+        when(roomRepository.findByIdForUpdate(1)).thenReturn(Mono.just(existingRoom));
+        when(buildingRepository.adjustUsedArea(BUILDING_ID, 40.0, 0)).thenReturn(Mono.just(1));
+        when(roomRepository.save(any(Room.class))).thenReturn(Mono.just(room));
+        when(cacheInvalidationBus.roomChanged(1)).thenReturn(Mono.empty());
+
+        StepVerifier.create(roomService.updateRoom(1, roomDto))
+                .expectNextMatches(result -> result.getArea().equals(ROOM_AREA))
+                .verifyComplete();
+    }
+
+    @Test
+    void testUpdateRoomAndNotEnoughArea() {
+        Room existingRoom = Room.builder().id(ROOM_ID).name(ROOM_NAME).area(60.0).floor(ROOM_FLOOR).buildingId(BUILDING_ID).build();
+        when(roomRepository.findByIdForUpdate(1)).thenReturn(Mono.just(existingRoom));
+        when(buildingRepository.adjustUsedArea(BUILDING_ID, 40.0, 0)).thenReturn(Mono.just(0));
+        when(buildingRepository.existsById(BUILDING_ID)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(roomService.updateRoom(1, roomDto))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+        verify(roomRepository, never()).save(any(Room.class));
+    }
+
+    @Test
+    void testUpdateRoomAndOtherBuildingShouldMoveArea() {
+        Room existingRoom = Room.builder().id(ROOM_ID).name(ROOM_NAME).area(ROOM_AREA).floor(ROOM_FLOOR).buildingId(2).build();
+        when(roomRepository.findByIdForUpdate(1)).thenReturn(Mono.just(existingRoom));
+        when(buildingRepository.adjustUsedArea(BUILDING_ID, ROOM_AREA, 1)).thenReturn(Mono.just(1));
+        when(buildingRepository.adjustUsedArea(2, -ROOM_AREA, -1)).thenReturn(Mono.just(1));
+        when(roomRepository.save(any(Room.class))).thenReturn(Mono.just(room));
+        when(cacheInvalidationBus.roomChanged(1)).thenReturn(Mono.empty());
+
+        StepVerifier.create(roomService.updateRoom(1, roomDto))
+                .expectNextMatches(result -> result.getBuildingId().equals(BUILDING_ID))
+                .verifyComplete();
+        verify(buildingRepository).adjustUsedArea(2, -ROOM_AREA, -1);
+    }
+
+    @Test
+    void testUpdateRoomShouldAdjustBuildingsInIdOrder() {
+        RoomDto movedRoom = RoomDto.builder().id(ROOM_ID).name(ROOM_NAME).area(ROOM_AREA).floor(ROOM_FLOOR).buildingId(2).build();
+        when(roomRepository.findByIdForUpdate(1)).thenReturn(Mono.just(room));
+        when(buildingRepository.adjustUsedArea(BUILDING_ID, -ROOM_AREA, -1)).thenReturn(Mono.just(1));
+        when(buildingRepository.adjustUsedArea(2, ROOM_AREA, 1)).thenReturn(Mono.just(1));
+        when(roomRepository.save(any(Room.class))).thenReturn(Mono.just(room));
+        when(cacheInvalidationBus.roomChanged(1)).thenReturn(Mono.empty());
+
+        StepVerifier.create(roomService.updateRoom(1, movedRoom))
+                .expectNextCount(1)
+                .verifyComplete();
+        InOrder inOrder = inOrder(buildingRepository);
+        inOrder.verify(buildingRepository).adjustUsedArea(BUILDING_ID, -ROOM_AREA, -1);
+        inOrder.verify(buildingRepository).adjustUsedArea(2, ROOM_AREA, 1);
+    }
+
+    @Test
+    void testUpdateRoomAndNegativeAreaShouldThrowException() {
+        RoomDto negativeRoom = RoomDto.builder().id(ROOM_ID).name(ROOM_NAME).area(-5.0).floor(ROOM_FLOOR).buildingId(BUILDING_ID).build();
+
+        StepVerifier.create(roomService.updateRoom(1, negativeRoom))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+        verify(roomRepository, never()).findByIdForUpdate(anyInt());
+    }
+
+    @Test
+    void testAddRoomWithoutAreaShouldThrowException() {
+        RoomDto roomWithoutArea = RoomDto.builder().name(ROOM_NAME).floor(ROOM_FLOOR).buildingId(BUILDING_ID).build();
+
+        StepVerifier.create(roomService.addRoom(roomWithoutArea))
+                .expectError(CustomBadRequestException.class)
+                .verify();
     }
 
     @Test
     void testDeleteRoom() {
-        when(roomRepository.deleteById(1)).thenReturn(Mono.empty());
+        when(roomRepository.deleteRoomById(1)).thenReturn(Mono.just(1));
+        when(cacheInvalidationBus.roomChanged(1)).thenReturn(Mono.empty());
 
         StepVerifier.create(roomService.deleteRoom(1))
                 .verifyComplete();
-        verify(roomRepository).deleteById(1);
+        verify(roomRepository).deleteRoomById(1);
+        verify(cacheInvalidationBus).roomChanged(1);
     }
 
 
@@ -0,0 +1,102 @@
+package org.example.inventoryservice.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.inventoryservice.client.BuildingServiceClient;
+import org.example.inventoryservice.inventoryitem.dto.RoomDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Room information from building-service, cached per room id. Misses of one call are loaded with a single batch
+ * request, concurrent misses for the same id share the in-flight load, and rooms building-service does not know
+ * are remembered for a shorter time. Entries are refreshed in the background once they get old.
+ */
+@Component
+public class RoomInfoCache {
+
+    private final AsyncLoadingCache<Integer, Optional<RoomDto>> cache;
+
+    public RoomInfoCache(BuildingServiceClient buildingServiceClient,
+                         MeterRegistry meterRegistry,
+                         @Value("${inventory-service.room-cache.maximum-size:10000}") long maximumSize,
+                         @Value("${inventory-service.room-cache.expire-after-write:10m}") Duration expireAfterWrite,
+                         @Value("${inventory-service.room-cache.refresh-after-write:1m}") Duration refreshAfterWrite,
+                         @Value("${inventory-service.room-cache.expire-missing-after:30s}") Duration expireMissingAfter) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new FoundOrMissingExpiry(expireAfterWrite, expireMissingAfter))
+                .refreshAfterWrite(refreshAfterWrite)
+                .recordStats()
+                .buildAsync(new RoomLoader(buildingServiceClient));
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "rooms");
+    }
+
+    /**
+     * Returns the known rooms among {@code ids}; unknown ids are left out of the map.
+     */
+    public Mono<Map<Integer, RoomDto>> getAll(Collection<Integer> ids) {
+        return Mono.fromCompletionStage(() -> cache.getAll(ids))
+                .map(rooms -> {
+                    Map<Integer, RoomDto> found = new HashMap<>();
+                    rooms.forEach((id, room) -> room.ifPresent(roomDto -> found.put(id, roomDto)));
+                    return found;
+                });
+    }
+
+    private record RoomLoader(BuildingServiceClient client) implements AsyncCacheLoader<Integer, Optional<RoomDto>> {
+
+        @Override
+        public CompletableFuture<Optional<RoomDto>> asyncLoad(Integer id, Executor executor) {
+            return client.getRoomById(id)
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .toFuture();
+        }
+
+        @Override
+        public CompletableFuture<Map<Integer, Optional<RoomDto>>> asyncLoadAll(Set<? extends Integer> ids, Executor executor) {
+            return client.getRoomsByIds(List.copyOf(ids))
+                    .collectMap(RoomDto::getId)
+                    .map(found -> {
+                        Map<Integer, Optional<RoomDto>> rooms = new HashMap<>();
+                        ids.forEach(id -> rooms.put(id, Optional.ofNullable(found.get(id))));
+                        return rooms;
+                    })
+                    .toFuture();
+        }
+    }
+
+    private record FoundOrMissingExpiry(Duration found, Duration missing) implements Expiry<Integer, Optional<RoomDto>> {
+
+        @Override
+        public long expireAfterCreate(Integer id, Optional<RoomDto> room, long currentTime) {
+            return (room.isPresent() ? found : missing).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Integer id, Optional<RoomDto> room, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, room, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Integer id, Optional<RoomDto> room, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
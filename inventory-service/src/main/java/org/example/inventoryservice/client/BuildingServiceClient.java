@@ -0,0 +1,119 @@
+package org.example.inventoryservice.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.example.inventoryservice.inventoryitem.dto.RoomDto;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The one way inventory-service talks to building-service. The WebClient is built once from the load-balanced
+ * builder on its own connection pool, with connect and response timeouts, and every call is timed under
+ * {@code building.client.requests}.
+ */
+@Slf4j
+@Component
+public class BuildingServiceClient implements DisposableBean {
+
+    /**
+     * Building-service rejects larger batch lookups.
+     */
+    static final int MAX_BATCH_SIZE = 1000;
+
+    private final WebClient webClient;
+    private final ConnectionProvider connectionProvider;
+    private final MeterRegistry meterRegistry;
+    private final int concurrency;
+
+    public BuildingServiceClient(WebClient.Builder webClientBuilder,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${inventory-service.building-client.url:http://BUILDING-SERVICE}") String url,
+                                 @Value("${inventory-service.building-client.max-connections:100}") int maxConnections,
+                                 @Value("${inventory-service.building-client.pending-acquire-timeout:5s}") Duration pendingAcquireTimeout,
+                                 @Value("${inventory-service.building-client.max-idle-time:30s}") Duration maxIdleTime,
+                                 @Value("${inventory-service.building-client.connect-timeout:2s}") Duration connectTimeout,
+                                 @Value("${inventory-service.building-client.response-timeout:3s}") Duration responseTimeout,
+                                 @Value("${inventory-service.building-client.concurrency:8}") int concurrency,
+                                 @Value("${inventory-service.building-client.http2:false}") boolean http2) {
+        this.connectionProvider = ConnectionProvider.builder("building-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout);
+        if (http2)
+            httpClient = httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        this.webClient = webClientBuilder.clone()
+                .baseUrl(url)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        this.meterRegistry = meterRegistry;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Returns the room, or nothing when building-service does not know it.
+     */
+    public Mono<RoomDto> getRoomById(Integer id) {
+        return timed("getRoomById", webClient.get()
+                .uri("/api/v1/rooms/{id}", id)
+                .retrieve()
+                .bodyToMono(RoomDto.class)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty()));
+    }
+
+    /**
+     * Returns the known rooms among {@code ids}, split into batch calls building-service accepts, with at most
+     * {@code concurrency} of them in flight.
+     */
+    public Flux<RoomDto> getRoomsByIds(Collection<Integer> ids) {
+        return Flux.fromIterable(ids)
+                .distinct()
+                .buffer(MAX_BATCH_SIZE)
+                .flatMap(this::getRoomBatch, concurrency);
+    }
+
+    private Flux<RoomDto> getRoomBatch(List<Integer> ids) {
+        return timed("getRoomsByIds", webClient.post()
+                .uri("/api/v1/rooms/batch")
+                .bodyValue(ids)
+                .retrieve()
+                .bodyToFlux(RoomDto.class)
+                .collectList())
+                .flatMapIterable(rooms -> rooms);
+    }
+
+    private <T> Mono<T> timed(String operation, Mono<T> call) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call
+                    .doOnError(e -> log.error("building-service {} failed: {}", operation, e.getMessage()))
+                    .doFinally(signal -> sample.stop(meterRegistry.timer("building.client.requests",
+                            "operation", operation,
+                            "outcome", signal.name())));
+        });
+    }
+
+    @Override
+    public void destroy() {
+        connectionProvider.dispose();
+    }
+}
@@ -4,7 +4,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.inventoryservice.inventory.dto.InventoriesByRoomResponseDto;
 import org.example.inventoryservice.inventory.dto.InventoryDto;
+import org.example.inventoryservice.inventory.dto.InventorySearchResultDto;
 import org.example.inventoryservice.payload.ApiResponse;
+import org.example.inventoryservice.payload.CursorPage;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -26,6 +28,18 @@ public class InventoryController {
 
     }
 
+    @GetMapping(params = "after")
+    public Mono<CursorPage<Inventory>> getInventoriesAfter(@RequestParam String after,
+                                                           @RequestParam(defaultValue = "10") int size) {
+        return inventoryService.getInventoriesAfter(after, size);
+    }
+
+    @GetMapping("/search")
+    public Mono<CursorPage<InventorySearchResultDto>> searchInventories(@RequestParam String q,
+                                                                        @RequestParam(required = false) String after,
+                                                                        @RequestParam(defaultValue = "10") int size) {
+        return inventoryService.searchInventories(q, after, size);
+    }
 
     @GetMapping("/by-room-id/{roomId}")
     public Flux<InventoriesByRoomResponseDto> getInventoriesByRoomId(@PathVariable Integer roomId,
@@ -36,6 +50,13 @@ public class InventoryController {
 
     }
 
+    @GetMapping(value = "/by-room-id/{roomId}", params = "after")
+    public Mono<CursorPage<InventoriesByRoomResponseDto>> getInventoriesByRoomIdAfter(@PathVariable Integer roomId,
+                                                                                      @RequestParam String after,
+                                                                                      @RequestParam(defaultValue = "10") int size) {
+        return inventoryService.getInventoriesByRoomIdAfter(roomId, after, size);
+    }
+
     @GetMapping("/{id}")
     public Mono<Inventory> getInventoryById(@PathVariable Integer id) {
         return inventoryService.getInventoryById(id);
@@ -2,22 +2,131 @@ package org.example.inventoryservice.inventory;
 
 
 import org.example.inventoryservice.inventory.dto.InventoriesByRoomResponseDto;
+import org.example.inventoryservice.inventory.dto.InventorySearchResultDto;
+import org.example.inventoryservice.inventory.dto.RoomInventoryCountDriftDto;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 public interface InventoryRepository extends ReactiveCrudRepository<Inventory, Integer> {
 
+    /**
+     * Reads the per-room counts kept by the inventory_item triggers instead of counting items per request.
+     */
     @Query("""
-            SELECT i.id        as id,
+            SELECT i.id,
                    i.name,
                    i.inventory_sign,
-                   count(i.id) as quantity
-            from inventory i
-                     join inventory_item ii on i.id = ii.inventory_id
-            where ii.room_id = :roomId
-            group by i.id, i.name, i.inventory_sign
-            offset (:page * :size) limit :size
+                   c.quantity
+            FROM room_inventory_count c
+                     JOIN inventory i ON i.id = c.inventory_id
+            WHERE c.room_id = :roomId
+            ORDER BY c.inventory_id
+            OFFSET (:page * :size) LIMIT :size
             """)
     Flux<InventoriesByRoomResponseDto> getInventoriesByRoomId(Integer roomId, int page, int size);
+
+    @Query("""
+            SELECT i.id,
+                   i.name,
+                   i.inventory_sign,
+                   c.quantity
+            FROM room_inventory_count c
+                     JOIN inventory i ON i.id = c.inventory_id
+            WHERE c.room_id = :roomId
+              AND c.inventory_id > :after
+            ORDER BY c.inventory_id
+            LIMIT :size
+            """)
+    Flux<InventoriesByRoomResponseDto> getInventoriesByRoomIdAfter(Integer roomId, int after, int size);
+
+    /**
+     * Pairs whose maintained count differs from the items actually in the room.
+     */
+    @Query("""
+            SELECT coalesce(a.room_id, c.room_id)           AS room_id,
+                   coalesce(a.inventory_id, c.inventory_id) AS inventory_id,
+                   coalesce(c.quantity, 0)                  AS counted,
+                   coalesce(a.quantity, 0)                  AS actual
+            FROM (SELECT room_id, inventory_id, count(*) AS quantity
+                  FROM inventory_item
+                  WHERE room_id IS NOT NULL
+                  GROUP BY room_id, inventory_id) a
+                     FULL JOIN room_inventory_count c
+                               ON c.room_id = a.room_id AND c.inventory_id = a.inventory_id
+            WHERE coalesce(a.quantity, 0) <> coalesce(c.quantity, 0)
+            """)
+    Flux<RoomInventoryCountDriftDto> findRoomInventoryCountDrift();
+
+    /**
+     * Blocks item writes until the surrounding transaction ends, so a recount is not overtaken by the triggers.
+     */
+    @Modifying
+    @Query("LOCK TABLE inventory_item IN SHARE MODE")
+    Mono<Void> lockInventoryItems();
+
+    @Modifying
+    @Query("""
+            INSERT INTO room_inventory_count AS c (room_id, inventory_id, quantity)
+            SELECT room_id, inventory_id, count(*)
+            FROM inventory_item
+            WHERE room_id IS NOT NULL
+            GROUP BY room_id, inventory_id
+            ON CONFLICT (room_id, inventory_id) DO UPDATE
+                SET quantity = EXCLUDED.quantity
+            WHERE c.quantity <> EXCLUDED.quantity
+            """)
+    Mono<Integer> recountRoomInventoryCounts();
+
+    @Modifying
+    @Query("""
+            DELETE
+            FROM room_inventory_count c
+            WHERE NOT EXISTS(SELECT 1
+                             FROM inventory_item ii
+                             WHERE ii.room_id = c.room_id
+                               AND ii.inventory_id = c.inventory_id)
+            """)
+    Mono<Integer> deleteStaleRoomInventoryCounts();
+
+    /**
+     * Matches the query against the generated search_vector column through its GIN index and pages by
+     * (rank, id) descending rank first.
+     */
+    @Query("""
+            SELECT i.id,
+                   i.name,
+                   i.description,
+                   i.inventory_sign,
+                   m.rank,
+                   (SELECT count(*) FROM inventory_item ii WHERE ii.inventory_id = i.id) +
+                   (SELECT coalesce(sum(r.end_number - r.start_number + 1), 0)
+                    FROM inventory_item_range r
+                    WHERE r.inventory_id = i.id)                           AS item_count
+            FROM inventory i
+                     CROSS JOIN websearch_to_tsquery('english', :query) q
+                     CROSS JOIN LATERAL (SELECT ts_rank(i.search_vector, q) AS rank) m
+            WHERE i.search_vector @@ q
+              AND (m.rank < :afterRank OR (m.rank = :afterRank AND i.id > :afterId))
+            ORDER BY m.rank DESC, i.id
+            LIMIT :size
+            """)
+    Flux<InventorySearchResultDto> search(String query, float afterRank, int afterId, int size);
+
+    @Query("""
+            SELECT * FROM inventory
+            ORDER BY id
+            LIMIT :size OFFSET :offset
+            """)
+    Flux<Inventory> findPage(long offset, int size);
+
+    @Query("""
+            SELECT * FROM inventory
+            WHERE id > :after
+            ORDER BY id
+            LIMIT :size
+            """)
+    Flux<Inventory> findAllAfter(int after, int size);
 }
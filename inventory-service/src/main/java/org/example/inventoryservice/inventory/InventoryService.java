@@ -5,8 +5,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.example.inventoryservice.exception.*;
 import org.example.inventoryservice.inventory.dto.InventoriesByRoomResponseDto;
 import org.example.inventoryservice.inventory.dto.InventoryDto;
+import org.example.inventoryservice.inventory.dto.InventorySearchResultDto;
 import org.example.inventoryservice.inventoryitem.InventoryItem;
+import org.example.inventoryservice.inventoryitem.InventoryItemRangeService;
 import org.example.inventoryservice.inventoryitem.InventoryItemRepository;
+import org.example.inventoryservice.inventoryitem.SignNumberIndex;
+import org.example.inventoryservice.payload.Cursor;
+import org.example.inventoryservice.payload.CursorPage;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,17 +27,35 @@ import java.util.stream.Collectors;
 @Slf4j
 public class InventoryService {
 
+    /**
+     * Numbers inserted per generate_series statement, so very large ranges do not run as one huge statement.
+     */
+    static final int RANGE_CHUNK_SIZE = 100_000;
+
+    private static final int MAX_SEARCH_SIZE = 1000;
+
     private final InventoryRepository inventoryRepository;
     private final InventoryItemRepository inventoryItemRepository;
+    private final SignNumberIndex signNumberIndex;
+    private final InventoryItemRangeService inventoryItemRangeService;
 
     public Flux<Inventory> getAllInventories(int page, int size) {
         if (invalidPageOrSize(page, size)) {
             log.error("Bad request...");
             return Flux.error(() -> new CustomBadRequestException("Page and size should not be less than 1"));
         }
-        return inventoryRepository.findAll()
-                .skip((long) page * size)
-                .take(size);
+        return inventoryRepository.findPage((long) page * size, size);
+    }
+
+    public Mono<CursorPage<Inventory>> getInventoriesAfter(String after, int size) {
+        if (size <= 0) {
+            log.error("Bad request...");
+            return Mono.error(() -> new CustomBadRequestException("Size should not be less than 1"));
+        }
+        return Mono.fromCallable(() -> Cursor.decodeId(after))
+                .flatMapMany(afterId -> inventoryRepository.findAllAfter(afterId, size))
+                .collectList()
+                .map(inventories -> CursorPage.of(inventories, size, Inventory::getId));
     }
 
     public Flux<InventoriesByRoomResponseDto> getInventoriesByRoomId(Integer roomId, int page, int size) {
@@ -43,6 +66,35 @@ public class InventoryService {
         return inventoryRepository.getInventoriesByRoomId(roomId, page, size);
     }
 
+    public Mono<CursorPage<InventoriesByRoomResponseDto>> getInventoriesByRoomIdAfter(Integer roomId, String after, int size) {
+        if (size <= 0) {
+            log.error("Bad request...");
+            return Mono.error(() -> new CustomBadRequestException("Size should not be less than 1"));
+        }
+        return Mono.fromCallable(() -> Cursor.decodeId(after))
+                .flatMapMany(afterId -> inventoryRepository.getInventoriesByRoomIdAfter(roomId, afterId, size))
+                .collectList()
+                .map(inventories -> CursorPage.of(inventories, size, InventoriesByRoomResponseDto::getId));
+    }
+
+    /**
+     * Full-text search over inventory names, signs and descriptions, best matches first. The query takes web search
+     * syntax: quoted phrases, {@code or} and {@code -excluded} words.
+     */
+    public Mono<CursorPage<InventorySearchResultDto>> searchInventories(String query, String after, int size) {
+        if (size <= 0 || size > MAX_SEARCH_SIZE) {
+            log.error("Bad request...");
+            return Mono.error(() -> new CustomBadRequestException("Size should be between 1 and " + MAX_SEARCH_SIZE));
+        }
+        if (query == null || query.isBlank())
+            return Mono.error(() -> new CustomBadRequestException("Search query should not be empty"));
+        return Mono.fromCallable(() -> Cursor.decodeRanked(after))
+                .flatMapMany(cursor -> inventoryRepository.search(query.strip(), cursor.rank(), cursor.id(), size))
+                .collectList()
+                .map(inventories -> CursorPage.withCursor(inventories, size,
+                        inventory -> Cursor.encodeRanked(inventory.getRank(), inventory.getId())));
+    }
+
     private static boolean invalidPageOrSize(int page, int size) {
         return page < 0 || size <= 0;
     }
@@ -67,7 +119,8 @@ public class InventoryService {
                                 return saveInventoryItems(inventoryDto, savedInventory);
                             return Mono.just(savedInventory);
                         }
-                );
+                )
+                .doOnSuccess(savedInventory -> signNumberIndex.inventoriesChanged());
     }
 
     public Mono<InventoryDto> updateInventory(Integer id, InventoryDto inventoryDto) {
@@ -78,6 +131,7 @@ public class InventoryService {
                     existingInventory.setInventorySign(inventoryDto.getInventorySign());
                     return inventoryRepository.save(existingInventory);
                 })
+                .doOnNext(savedInventory -> signNumberIndex.inventoriesChanged())
                 .map(this::convertToInventoryDto)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("Inventory", id)));
     }
@@ -85,6 +139,7 @@ public class InventoryService {
     public Mono<Boolean> deleteInventory(Integer id) {
         return inventoryRepository.deleteById(id)
                 .onErrorMap(e -> new CustomBadRequestException("You can't delete an inventory with id: " + id))
+                .doOnSuccess(unused -> signNumberIndex.inventoriesChanged())
                 .flatMap(unused -> Mono.just(true));
     }
 
@@ -141,16 +196,11 @@ public class InventoryService {
 //          Check if the start number is greater than the end number
             if (start > end)
                 return Mono.error(WrongInputRangeException::new);
-//          Create a list of InventoryItem objects
-            for (int i = start; i <= end; i++) {
-                inventoryItems.add(
-                        InventoryItem.builder()
-                                .inventoryId(savedInventory.getId())
-                                .inventoryNumber(i)
-                                .buildingId(buildingId)
-                                .build()
-                );
-            }
+            if (inventoryItemRangeService.isEnabled())
+                return inventoryItemRangeService.store(savedInventory.getId(), buildingId, start, end)
+                        .then(Mono.just(savedInventory));
+            return insertRange(savedInventory.getId(), buildingId, start, end)
+                    .then(Mono.just(savedInventory));
         }
         return inventoryItemRepository.saveAll(inventoryItems)
                 .onErrorResume(e -> {
@@ -169,4 +219,27 @@ public class InventoryService {
                 .then(Mono.just(savedInventory));
     }
 
+    /**
+     * Inserts the numbered items chunk by chunk in set form. A chunk that inserts fewer rows than it covers ran into
+     * numbers the inventory already has, which fails the whole (transactional) save.
+     */
+    private Mono<Void> insertRange(Integer inventoryId, Integer buildingId, int start, int end) {
+        long total = (long) end - start + 1;
+        int chunks = (int) ((total + RANGE_CHUNK_SIZE - 1) / RANGE_CHUNK_SIZE);
+        return Flux.range(0, chunks)
+                .concatMap(chunk -> {
+                    int chunkStart = (int) (start + (long) chunk * RANGE_CHUNK_SIZE);
+                    int chunkEnd = (int) Math.min(end, (long) chunkStart + RANGE_CHUNK_SIZE - 1);
+                    return inventoryItemRepository.insertRange(inventoryId, buildingId, chunkStart, chunkEnd)
+                            .flatMap(inserted -> {
+                                int conflicts = chunkEnd - chunkStart + 1 - inserted;
+                                if (conflicts == 0)
+                                    return Mono.<Void>empty();
+                                String errorMsg = conflicts + " inventory numbers between " + chunkStart + " and " + chunkEnd + " already exist.";
+                                log.error(errorMsg);
+                                return Mono.<Void>error(new UniqueKeyException(errorMsg));
+                            });
+                })
+                .then();
+    }
 }
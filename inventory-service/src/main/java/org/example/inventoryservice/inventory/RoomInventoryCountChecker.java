@@ -0,0 +1,63 @@
+package org.example.inventoryservice.inventory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares room_inventory_count with the items actually in each room. Drift is logged and exported as
+ * {@code room.inventory.count.drift}; with repair enabled the counts are rebuilt while item writes are held off.
+ */
+@Slf4j
+@Component
+public class RoomInventoryCountChecker {
+
+    private final InventoryRepository inventoryRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final boolean repair;
+    private final AtomicLong drift = new AtomicLong();
+
+    public RoomInventoryCountChecker(InventoryRepository inventoryRepository,
+                                     TransactionalOperator transactionalOperator,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${inventory-service.room-count-check.repair:false}") boolean repair) {
+        this.inventoryRepository = inventoryRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.repair = repair;
+        meterRegistry.gauge("room.inventory.count.drift", drift);
+    }
+
+    @Scheduled(cron = "${inventory-service.room-count-check.cron:0 30 3 * * *}")
+    public void scheduledCheck() {
+        check().subscribe(
+                drifted -> log.info("Room inventory count check finished, {} drifted pairs", drifted),
+                e -> log.error("Room inventory count check failed: {}", e.getMessage()));
+    }
+
+    /**
+     * Returns the number of (room, inventory) pairs whose count was off.
+     */
+    public Mono<Long> check() {
+        return inventoryRepository.findRoomInventoryCountDrift()
+                .doOnNext(d -> log.warn("Room {} inventory {} counted {} but holds {}",
+                        d.getRoomId(), d.getInventoryId(), d.getCounted(), d.getActual()))
+                .count()
+                .doOnNext(drift::set)
+                .flatMap(drifted -> drifted == 0 || !repair ? Mono.just(drifted) : repairCounts().thenReturn(drifted));
+    }
+
+    private Mono<Void> repairCounts() {
+        return inventoryRepository.lockInventoryItems()
+                .then(inventoryRepository.recountRoomInventoryCounts())
+                .flatMap(recounted -> inventoryRepository.deleteStaleRoomInventoryCounts()
+                        .doOnNext(deleted -> log.warn("Repaired room inventory counts: {} recounted, {} removed", recounted, deleted)))
+                .then()
+                .as(transactionalOperator::transactional);
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.inventoryservice.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class InventorySearchResultDto {
+    private Integer id;
+    private String name;
+    private String description;
+    private String inventorySign;
+    private Long itemCount;
+    private Float rank;
+}
@@ -0,0 +1,17 @@
+package org.example.inventoryservice.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class RoomInventoryCountDriftDto {
+    private Integer roomId;
+    private Integer inventoryId;
+    private Integer counted;
+    private Integer actual;
+}
@@ -0,0 +1,21 @@
+package org.example.inventoryservice.inventoryitem;
+
+/**
+ * A parsed CSV line: either an item to load or the reason the line was rejected.
+ */
+record ImportRow(long line, InventoryItem item, String reject) {
+
+    static final ImportRow SKIP = new ImportRow(0, null, null);
+
+    static ImportRow accepted(long line, InventoryItem item) {
+        return new ImportRow(line, item, null);
+    }
+
+    static ImportRow rejected(long line, String reject) {
+        return new ImportRow(line, null, reject);
+    }
+
+    boolean isRejected() {
+        return reject != null;
+    }
+}
@@ -26,6 +26,6 @@ public class InventoryItem {
     public InventoryItem(Integer inventoryId, Integer inventoryNumber, Integer buildingId) {
         this.inventoryId = inventoryId;
         this.inventoryNumber = inventoryNumber;
-        this.roomId = buildingId;
+        this.buildingId = buildingId;
     }
 }
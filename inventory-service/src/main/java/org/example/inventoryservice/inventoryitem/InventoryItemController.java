@@ -2,15 +2,27 @@ package org.example.inventoryservice.inventoryitem;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.inventoryservice.inventoryitem.dto.ImportEventDto;
 import org.example.inventoryservice.inventoryitem.dto.InventoryItemDto;
 import org.example.inventoryservice.inventoryitem.dto.InventoryItemWithRoomInfoDto;
+import org.example.inventoryservice.inventoryitem.dto.InventoryNumberRunDto;
+import org.example.inventoryservice.inventoryitem.dto.RelocateRequestDto;
+import org.example.inventoryservice.inventoryitem.dto.TransferInfoDto;
+import org.example.inventoryservice.inventoryitem.dto.SignNumberLookupDto;
+import org.example.inventoryservice.inventoryitem.dto.SignNumberSuggestionDto;
 import org.example.inventoryservice.payload.ApiResponse;
+import org.example.inventoryservice.payload.CursorPage;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @Slf4j
 @RestController
 @RequestMapping("/api/v1/inventory-items")
@@ -18,6 +30,8 @@ import reactor.core.publisher.Mono;
 public class InventoryItemController {
 
     private final InventoryItemService inventoryItemService;
+    private final InventoryItemImportService inventoryItemImportService;
+    private final InventoryTransferService inventoryTransferService;
 
     @GetMapping("/search-by-sign-number/{inventorySignNumber}")
     public Flux<InventoryItemWithRoomInfoDto> getInventoryItemRoomInfoBySignNumber(@PathVariable String inventorySignNumber,
@@ -26,6 +40,18 @@ public class InventoryItemController {
         return inventoryItemService.getInventoryItemRoomInfoBySignNumber(inventorySignNumber, page - 1, size);
     }
 
+    @PostMapping(value = "/lookup", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<SignNumberLookupDto> lookup(@RequestBody List<String> signNumbers) {
+        log.info("looking up {} sign-numbers", signNumbers.size());
+        return inventoryItemService.lookup(signNumbers);
+    }
+
+    @GetMapping("/autocomplete")
+    public Flux<SignNumberSuggestionDto> autocomplete(@RequestParam String prefix,
+                                                      @RequestParam(defaultValue = "10") int limit) {
+        return inventoryItemService.autocomplete(prefix, limit);
+    }
+
     @GetMapping
     public Flux<InventoryItem> getAllInventoryItems(@RequestParam(defaultValue = "1") int page,
                                                     @RequestParam(defaultValue = "10") int size) {
@@ -34,6 +60,29 @@ public class InventoryItemController {
 
     }
 
+    @GetMapping(params = "after")
+    public Mono<CursorPage<InventoryItem>> getInventoryItemsAfter(@RequestParam String after,
+                                                                  @RequestParam(defaultValue = "10") int size) {
+        return inventoryItemService.getInventoryItemsAfter(after, size);
+    }
+
+    @GetMapping("/range")
+    public Mono<CursorPage<InventoryItem>> getInventoryItemsByNumberRange(@RequestParam String sign,
+                                                                          @RequestParam int from,
+                                                                          @RequestParam int to,
+                                                                          @RequestParam(required = false) String after,
+                                                                          @RequestParam(defaultValue = "100") int size) {
+        return inventoryItemService.getInventoryItemsByNumberRange(sign, from, to, after, size);
+    }
+
+    @GetMapping(value = "/range", params = "mode=runs")
+    public Mono<CursorPage<InventoryNumberRunDto>> getInventoryNumberRuns(@RequestParam String sign,
+                                                                          @RequestParam int from,
+                                                                          @RequestParam int to,
+                                                                          @RequestParam(required = false) String after,
+                                                                          @RequestParam(defaultValue = "100") int size) {
+        return inventoryItemService.getInventoryNumberRuns(sign, from, to, after, size);
+    }
 
     @GetMapping("/{id}")
     public Mono<InventoryItemDto> getInventoryItemById(@PathVariable Integer id) {
@@ -41,6 +90,18 @@ public class InventoryItemController {
     }
 
 
+    @PostMapping(value = "/import", consumes = "text/csv", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ImportEventDto> importInventoryItems(@RequestBody Flux<DataBuffer> content) {
+        log.info("importing inventory items from csv");
+        return inventoryItemImportService.importCsv(content);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ImportEventDto> importInventoryItemsFile(@RequestPart("file") Mono<FilePart> file) {
+        log.info("importing inventory items from uploaded csv file");
+        return inventoryItemImportService.importCsv(file.flatMapMany(FilePart::content));
+    }
+
     @PostMapping
     public Mono<ResponseEntity<ApiResponse>> addInventoryItem(@RequestBody InventoryItemDto inventoryItemDto) {
         log.info("new inventoryItem adding {}", inventoryItemDto);
@@ -57,6 +118,32 @@ public class InventoryItemController {
 
 
 
+    @PostMapping("/relocate")
+    public Mono<ResponseEntity<ApiResponse>> relocateInventoryItems(@RequestBody RelocateRequestDto relocateRequestDto) {
+        log.info("relocating inventory items to room {}", relocateRequestDto.getRoomId());
+        return inventoryItemService.relocate(relocateRequestDto)
+                .map(relocated ->
+                        new ResponseEntity<>(
+                                new ApiResponse(
+                                        true,
+                                        "Successfully relocated!!",
+                                        relocated),
+                                HttpStatus.OK));
+    }
+
+    @PostMapping("/transfer")
+    public Mono<ResponseEntity<ApiResponse>> transferInventoryItems(@RequestBody TransferInfoDto transferInfoDto) {
+        log.info("transferring inventory items {}", transferInfoDto);
+        return inventoryTransferService.transfer(transferInfoDto)
+                .map(transferred ->
+                        new ResponseEntity<>(
+                                new ApiResponse(
+                                        true,
+                                        "Successfully transferred!!",
+                                        transferred),
+                                HttpStatus.OK));
+    }
+
     @PutMapping("/{id}")
     public Mono<ResponseEntity<ApiResponse>> updateInventoryItem(@PathVariable Integer id, @RequestBody InventoryItemDto inventoryItemDto) {
         log.info("updating inventoryItem with id: {}, data: {}", id, inventoryItemDto);
@@ -0,0 +1,134 @@
+package org.example.inventoryservice.inventoryitem;
+
+import org.example.inventoryservice.inventoryitem.dto.ImportEventDto;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Loads imported items through a per-chunk staging table: rows are sent in as one set of column arrays, checked
+ * against the inventory and inventory_item constraints in set form, and the clean ones merged into inventory_item.
+ * Lines that lose the merge to a concurrent insert are marked as rejects too, so every line is accounted for.
+ */
+@Repository
+public class InventoryItemImportRepository {
+
+    private static final String CREATE_STAGING = """
+            CREATE TEMP TABLE inventory_item_import (
+                line             bigint NOT NULL,
+                inventory_id     int    NOT NULL,
+                inventory_number int    NOT NULL,
+                building_id      int    NOT NULL,
+                room_id          int,
+                reject           text
+            ) ON COMMIT DROP
+            """;
+
+    private static final String FILL_STAGING = """
+            INSERT INTO inventory_item_import (line, inventory_id, inventory_number, building_id, room_id)
+            SELECT *
+            FROM unnest(CAST(:lines AS bigint[]), CAST(:inventoryIds AS int[]), CAST(:inventoryNumbers AS int[]),
+                        CAST(:buildingIds AS int[]), CAST(:roomIds AS int[]))
+            """;
+
+    private static final String MARK_REJECTS = """
+            UPDATE inventory_item_import s
+            SET reject = c.reject
+            FROM (SELECT st.line,
+                         CASE
+                             WHEN i.id IS NULL THEN 'Inventory ' || st.inventory_id || ' does not exist'
+                             WHEN ii.id IS NOT NULL OR EXISTS(SELECT 1
+                                                              FROM inventory_item_range r
+                                                              WHERE r.inventory_id = st.inventory_id
+                                                                AND st.inventory_number BETWEEN r.start_number AND r.end_number)
+                                 THEN 'Inventory number ' || st.inventory_number || ' already exists'
+                             WHEN st.copy_no > 1 THEN 'Inventory number ' || st.inventory_number || ' repeats an earlier line'
+                             END AS reject
+                  FROM (SELECT line, inventory_id, inventory_number,
+                               row_number() OVER (PARTITION BY inventory_id, inventory_number ORDER BY line) AS copy_no
+                        FROM inventory_item_import) st
+                           LEFT JOIN inventory i ON i.id = st.inventory_id
+                           LEFT JOIN inventory_item ii
+                                     ON ii.inventory_id = st.inventory_id AND ii.inventory_number = st.inventory_number) c
+            WHERE s.line = c.line
+              AND c.reject IS NOT NULL
+            """;
+
+    private static final String MERGE = """
+            WITH merged AS (
+                INSERT INTO inventory_item (inventory_id, inventory_number, building_id, room_id)
+                SELECT inventory_id, inventory_number, building_id, room_id
+                FROM inventory_item_import
+                WHERE reject IS NULL
+                ORDER BY line
+                ON CONFLICT (inventory_number, inventory_id) DO NOTHING
+                RETURNING id, inventory_id, inventory_number, room_id
+            ), dropped AS (
+                UPDATE inventory_item_import s
+                SET reject = 'Inventory number ' || s.inventory_number || ' already exists'
+                WHERE s.reject IS NULL
+                  AND NOT EXISTS(SELECT 1
+                                 FROM merged m
+                                 WHERE m.inventory_id = s.inventory_id
+                                   AND m.inventory_number = s.inventory_number)
+            )
+            SELECT id, inventory_id, inventory_number, room_id
+            FROM merged
+            """;
+
+    private static final String SELECT_REJECTS = """
+            SELECT line, reject
+            FROM inventory_item_import
+            WHERE reject IS NOT NULL
+            ORDER BY line
+            """;
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+
+    public InventoryItemImportRepository(DatabaseClient databaseClient, TransactionalOperator transactionalOperator) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    /**
+     * Loads one chunk of accepted rows in its own transaction and returns the inserted items and the lines the
+     * database rejected.
+     */
+    public Mono<ChunkResult> load(List<ImportRow> rows) {
+        return databaseClient.sql(CREATE_STAGING).then()
+                .then(fillStaging(rows))
+                .then(databaseClient.sql(MARK_REJECTS).then())
+                .then(databaseClient.sql(MERGE)
+                        .map(row -> InventoryItem.builder()
+                                .id(row.get("id", Integer.class))
+                                .inventoryId(row.get("inventory_id", Integer.class))
+                                .inventoryNumber(row.get("inventory_number", Integer.class))
+                                .roomId(row.get("room_id", Integer.class))
+                                .build())
+                        .all()
+                        .collectList())
+                .flatMap(loaded -> databaseClient.sql(SELECT_REJECTS)
+                        .map(row -> ImportEventDto.reject(row.get("line", Long.class), row.get("reject", String.class)))
+                        .all()
+                        .collectList()
+                        .map(rejects -> new ChunkResult(loaded, rejects)))
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<Void> fillStaging(List<ImportRow> rows) {
+        return databaseClient.sql(FILL_STAGING)
+                .bind("lines", rows.stream().map(ImportRow::line).toArray(Long[]::new))
+                .bind("inventoryIds", rows.stream().map(row -> row.item().getInventoryId()).toArray(Integer[]::new))
+                .bind("inventoryNumbers", rows.stream().map(row -> row.item().getInventoryNumber()).toArray(Integer[]::new))
+                .bind("buildingIds", rows.stream().map(row -> row.item().getBuildingId()).toArray(Integer[]::new))
+                .bind("roomIds", rows.stream().map(row -> row.item().getRoomId()).toArray(Integer[]::new))
+                .then();
+    }
+
+    public record ChunkResult(List<InventoryItem> loaded, List<ImportEventDto> rejects) {
+    }
+}
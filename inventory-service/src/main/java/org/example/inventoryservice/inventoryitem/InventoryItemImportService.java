@@ -0,0 +1,136 @@
+package org.example.inventoryservice.inventoryitem;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.inventoryservice.inventoryitem.dto.ImportEventDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Imports inventory items from CSV with the columns {@code inventory_id,inventory_number,building_id[,room_id]} and
+ * an optional header line. The body is split into lines as it arrives and loaded chunk by chunk, so memory is bounded
+ * by the chunk size rather than the file size. Each chunk commits on its own; if the import aborts, the progress
+ * events tell how far it got.
+ */
+@Service
+@Slf4j
+public class InventoryItemImportService {
+
+    private static final StringDecoder LINE_DECODER = StringDecoder.allMimeTypes(List.of("\n"), true);
+
+    private final InventoryItemImportRepository inventoryItemImportRepository;
+    private final SignNumberIndex signNumberIndex;
+    private final int chunkSize;
+
+    public InventoryItemImportService(InventoryItemImportRepository inventoryItemImportRepository,
+                                      SignNumberIndex signNumberIndex,
+                                      @Value("${inventory-service.import-chunk-size:10000}") int chunkSize) {
+        this.inventoryItemImportRepository = inventoryItemImportRepository;
+        this.signNumberIndex = signNumberIndex;
+        this.chunkSize = chunkSize;
+    }
+
+    public Flux<ImportEventDto> importCsv(Flux<DataBuffer> content) {
+        long[] totals = new long[3]; // read, loaded, rejected
+        return LINE_DECODER.decode(content, ResolvableType.forClass(String.class), null, Map.of())
+                .index((index, line) -> parse(index + 1, line))
+                .filter(row -> row != ImportRow.SKIP)
+                .buffer(chunkSize)
+                // load one chunk at a time; the default prefetch would buffer 32 parsed chunks ahead
+                .concatMap(rows -> load(rows, totals), 1)
+                .concatWith(Mono.fromSupplier(() -> event(ImportEventDto.DONE, totals)))
+                .doOnComplete(() -> log.info("Imported {} of {} inventory item lines, {} rejected", totals[1], totals[0], totals[2]));
+    }
+
+    private Flux<ImportEventDto> load(List<ImportRow> rows, long[] totals) {
+        List<ImportEventDto> rejects = new ArrayList<>();
+        List<ImportRow> accepted = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            if (row.isRejected())
+                rejects.add(ImportEventDto.reject(row.line(), row.reject()));
+            else
+                accepted.add(row);
+        }
+        Mono<InventoryItemImportRepository.ChunkResult> result = accepted.isEmpty()
+                ? Mono.just(new InventoryItemImportRepository.ChunkResult(List.of(), List.of()))
+                : inventoryItemImportRepository.load(accepted);
+        return result.flatMapMany(chunk -> {
+            signNumberIndex.putAll(chunk.loaded());
+            rejects.addAll(chunk.rejects());
+            rejects.sort(Comparator.comparing(ImportEventDto::getLine));
+            totals[0] += rows.size();
+            totals[1] += chunk.loaded().size();
+            totals[2] += rejects.size();
+            return Flux.fromIterable(rejects)
+                    .concatWith(Mono.fromSupplier(() -> event(ImportEventDto.PROGRESS, totals)));
+        });
+    }
+
+    /**
+     * Parses one line; blank lines and a leading header come back as {@link ImportRow#SKIP}.
+     */
+    static ImportRow parse(long line, String text) {
+        String trimmed = text.strip();
+        if (trimmed.isEmpty())
+            return ImportRow.SKIP;
+        String[] fields = trimmed.split(",", -1);
+        String first = unquote(fields[0]);
+        if (line == 1 && !first.isEmpty() && !Character.isDigit(first.charAt(0)))
+            return ImportRow.SKIP;
+        if (fields.length < 3 || fields.length > 4)
+            return ImportRow.rejected(line, "Expected inventory_id,inventory_number,building_id[,room_id]");
+        try {
+            Integer inventoryId = parseRequired(fields[0], "inventory_id");
+            Integer inventoryNumber = parseRequired(fields[1], "inventory_number");
+            Integer buildingId = parseRequired(fields[2], "building_id");
+            Integer roomId = fields.length == 4 && !unquote(fields[3]).isEmpty() ? parseRequired(fields[3], "room_id") : null;
+            return ImportRow.accepted(line, InventoryItem.builder()
+                    .inventoryId(inventoryId)
+                    .inventoryNumber(inventoryNumber)
+                    .buildingId(buildingId)
+                    .roomId(roomId)
+                    .build());
+        } catch (IllegalArgumentException e) {
+            return ImportRow.rejected(line, e.getMessage());
+        }
+    }
+
+    private static Integer parseRequired(String field, String column) {
+        String value = unquote(field);
+        if (value.isEmpty())
+            throw new IllegalArgumentException(column + " is required");
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed <= 0)
+                throw new IllegalArgumentException(column + " should be positive");
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a number: " + value);
+        }
+    }
+
+    private static String unquote(String field) {
+        String value = field.strip();
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\""))
+            value = value.substring(1, value.length() - 1).strip();
+        return value;
+    }
+
+    private static ImportEventDto event(String type, long[] totals) {
+        return ImportEventDto.builder()
+                .type(type)
+                .read(totals[0])
+                .loaded(totals[1])
+                .rejected(totals[2])
+                .build();
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.inventoryservice.inventoryitem;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A run of unassigned items, numbered {@code startNumber..endNumber}, stored as one row. The numbers of a run have
+ * no inventory_item rows until one of them gets a room or moves; see {@link InventoryItemRangeService}.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+@Table
+public class InventoryItemRange {
+    @Id
+    private Integer id;
+
+    private Integer inventoryId;
+    private Integer buildingId;
+    private Integer startNumber;
+    private Integer endNumber;
+
+    public long size() {
+        return (long) endNumber - startNumber + 1;
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.inventoryservice.inventoryitem;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface InventoryItemRangeRepository extends ReactiveCrudRepository<InventoryItemRange, Integer> {
+
+    Flux<InventoryItemRange> findAllByBuildingId(Integer buildingId);
+
+    Flux<InventoryItemRange> findAllByInventoryIdAndBuildingIdOrderByStartNumber(Integer inventoryId, Integer buildingId);
+
+    /**
+     * Turns the numbers {@code start..end} of the inventory's runs into inventory_item rows and keeps what is left
+     * of the runs on either side as new runs. With a {@code buildingId} only runs in that building are split. Runs
+     * another transaction is splitting or inserting next to are skipped rather than waited for, so their numbers are
+     * simply not materialized by this call.
+     */
+    @Modifying
+    @Query("""
+            WITH locked AS (SELECT id
+                            FROM inventory_item_range
+                            WHERE inventory_id = :inventoryId
+                              AND (:buildingId IS NULL OR building_id = :buildingId)
+                              AND start_number <= :end
+                              AND end_number >= :start
+                            FOR UPDATE SKIP LOCKED),
+                 hit AS (DELETE FROM inventory_item_range
+                         WHERE id IN (SELECT id FROM locked)
+                         RETURNING inventory_id, building_id, start_number, end_number),
+                 rest AS (INSERT INTO inventory_item_range (inventory_id, building_id, start_number, end_number)
+                          SELECT inventory_id, building_id, start_number, :start - 1
+                          FROM hit
+                          WHERE start_number < :start
+                          UNION ALL
+                          SELECT inventory_id, building_id, :end + 1, end_number
+                          FROM hit
+                          WHERE end_number > :end)
+            INSERT INTO inventory_item (inventory_id, inventory_number, building_id)
+            SELECT h.inventory_id, n, h.building_id
+            FROM hit h,
+                 generate_series(greatest(h.start_number, :start), least(h.end_number, :end)) AS n
+            """)
+    Mono<Integer> materialize(Integer inventoryId, Integer buildingId, int start, int end);
+}
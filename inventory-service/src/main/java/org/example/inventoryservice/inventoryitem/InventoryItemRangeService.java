@@ -0,0 +1,80 @@
+package org.example.inventoryservice.inventoryitem;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Range storage for unassigned items. When enabled, numbered items created in bulk are stored as one
+ * inventory_item_range row per run instead of a row per number. A run is split only when some of its items get a
+ * room or move to another building; those numbers then become ordinary inventory_item rows. Reads that address items
+ * by sign and number or count them look at both tables, so the storage mode is invisible to clients; only listing by
+ * item id is limited to items that have a row.
+ */
+@Service
+@Slf4j
+public class InventoryItemRangeService {
+
+    private final InventoryItemRangeRepository inventoryItemRangeRepository;
+    private final boolean enabled;
+
+    public InventoryItemRangeService(InventoryItemRangeRepository inventoryItemRangeRepository,
+                                     @Value("${inventory-service.range-storage.enabled:false}") boolean enabled) {
+        this.inventoryItemRangeRepository = inventoryItemRangeRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Whether new runs of numbered items should be stored as ranges.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Mono<InventoryItemRange> store(Integer inventoryId, Integer buildingId, int start, int end) {
+        return inventoryItemRangeRepository.save(InventoryItemRange.builder()
+                .inventoryId(inventoryId)
+                .buildingId(buildingId)
+                .startNumber(start)
+                .endNumber(end)
+                .build());
+    }
+
+    /**
+     * Gives the numbers {@code start..end} of the inventory their own rows, so they can be updated one by one.
+     */
+    public Mono<Integer> materialize(Integer inventoryId, int start, int end) {
+        return inventoryItemRangeRepository.materialize(inventoryId, null, start, end)
+                .doOnNext(materialized -> {
+                    if (materialized > 0)
+                        log.info("Split {} items {}..{} of inventory {} out of their ranges", materialized, start, end, inventoryId);
+                });
+    }
+
+    /**
+     * Gives up to {@code quantity} of the lowest range-stored numbers of the inventory in the building their own rows.
+     */
+    public Mono<Integer> materializeFirst(Integer inventoryId, Integer buildingId, int quantity) {
+        return inventoryItemRangeRepository.findAllByInventoryIdAndBuildingIdOrderByStartNumber(inventoryId, buildingId)
+                .collectList()
+                .flatMapMany(ranges -> {
+                    List<int[]> picks = new ArrayList<>();
+                    long needed = quantity;
+                    for (InventoryItemRange range : ranges) {
+                        if (needed == 0)
+                            break;
+                        long taken = Math.min(needed, range.size());
+                        picks.add(new int[]{range.getStartNumber(), (int) (range.getStartNumber() + taken - 1)});
+                        needed -= taken;
+                    }
+                    return Flux.fromIterable(picks);
+                })
+                .concatMap(pick -> inventoryItemRangeRepository.materialize(inventoryId, buildingId, pick[0], pick[1]))
+                .reduce(0, Integer::sum);
+    }
+}
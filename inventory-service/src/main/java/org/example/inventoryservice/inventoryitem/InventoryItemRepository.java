@@ -2,6 +2,9 @@ package org.example.inventoryservice.inventoryitem;
 
 
 import org.example.inventoryservice.inventoryitem.dto.InventoryItemDto;
+import org.example.inventoryservice.inventoryitem.dto.SignNumberItemDto;
+import org.example.inventoryservice.inventoryitem.dto.SignNumberSuggestionDto;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
@@ -11,6 +14,40 @@ public interface InventoryItemRepository extends ReactiveCrudRepository<Inventor
 
     Flux<InventoryItem> findAllByInventoryId(Integer inventoryId);
 
+    Flux<InventoryItem> findAllByRoomId(Integer roomId);
+
+    Flux<InventoryItem> findAllByBuildingId(Integer buildingId);
+
+    /**
+     * Resolves {@code signs[i] + numbers[i]} pairs in one query; pairs matching no item are left out. Range-stored
+     * items come back without an id and room.
+     */
+    @Query("""
+            SELECT ii.id,
+                   i.inventory_sign || ii.inventory_number AS sign_number,
+                   ii.inventory_id,
+                   ii.inventory_number,
+                   i.name                                  AS inventory_name,
+                   ii.room_id,
+                   ii.building_id
+            FROM unnest(:signs, :numbers) AS s(sign, number)
+                     JOIN inventory i ON i.inventory_sign = s.sign
+                     JOIN inventory_item ii ON ii.inventory_id = i.id AND ii.inventory_number = s.number
+            UNION ALL
+            SELECT NULL,
+                   i.inventory_sign || s.number,
+                   r.inventory_id,
+                   s.number,
+                   i.name,
+                   NULL,
+                   r.building_id
+            FROM unnest(:signs, :numbers) AS s(sign, number)
+                     JOIN inventory i ON i.inventory_sign = s.sign
+                     JOIN inventory_item_range r
+                          ON r.inventory_id = i.id AND s.number BETWEEN r.start_number AND r.end_number
+            """)
+    Flux<SignNumberItemDto> findAllBySignNumbers(String[] signs, Integer[] numbers);
+
     String SELECT_QUERY = """
             SELECT ii.id as id,
                    ii.inventory_number as inventory_number,
@@ -40,4 +77,280 @@ public interface InventoryItemRepository extends ReactiveCrudRepository<Inventor
     Flux<InventoryItemDto> findByInventorySignAndNumber(String inventorySign, Integer inventoryNumber, int page, int size);
 
     Mono<Integer> countByInventoryId(Integer inventoryId);
+
+    /**
+     * Items of the inventories whose sign matches {@code signPattern} with a number in one of the
+     * {@code starts[i]..ends[i]} ranges. Every (inventory, range) pair is a bounded scan of the
+     * (inventory_id, inventory_number) index, so the cost does not grow with the table. Range-stored numbers are
+     * expanded only as far as the limit and come back without an id.
+     */
+    @Query("""
+            SELECT ii.id,
+                   i.inventory_sign || ii.inventory_number AS sign_number,
+                   i.id                                    AS inventory_id,
+                   ii.inventory_number,
+                   i.name                                  AS inventory_name
+            FROM inventory i
+                     CROSS JOIN unnest(:starts, :ends) AS r(lo, hi)
+                     CROSS JOIN LATERAL ((SELECT id, inventory_number
+                                          FROM inventory_item
+                                          WHERE inventory_id = i.id
+                                            AND inventory_number BETWEEN r.lo AND r.hi
+                                          ORDER BY inventory_number
+                                          LIMIT :limit)
+                                         UNION ALL
+                                         (SELECT NULL::int,
+                                                 generate_series(greatest(start_number, r.lo), least(end_number, r.hi))
+                                          FROM inventory_item_range
+                                          WHERE inventory_id = i.id
+                                            AND start_number <= r.hi
+                                            AND end_number >= r.lo
+                                          ORDER BY start_number
+                                          LIMIT :limit)) ii (id, inventory_number)
+            WHERE i.inventory_sign LIKE :signPattern
+            ORDER BY ii.inventory_number, i.inventory_sign, ii.id
+            LIMIT :limit
+            """)
+    Flux<SignNumberSuggestionDto> autocomplete(String signPattern, Integer[] starts, Integer[] ends, int limit);
+
+    /**
+     * Items of the sign numbered {@code from..to}, ordered by inventory and number and continuing after the cursor
+     * position, so each page is a range scan of the (inventory_id, inventory_number) index. Range-stored numbers come
+     * back without id and room; each range contributes at most one page of generated numbers. Number arithmetic is
+     * done in bigint, so ranges and cursors at the top of the int range do not overflow.
+     */
+    @Query("""
+            SELECT *
+            FROM ((SELECT ii.id, ii.inventory_id, ii.inventory_number, ii.room_id, ii.building_id
+                   FROM inventory i
+                            JOIN inventory_item ii ON ii.inventory_id = i.id
+                   WHERE i.inventory_sign = :sign
+                     AND ii.inventory_number BETWEEN :from AND :to
+                     AND (ii.inventory_id, ii.inventory_number) > (:afterInventoryId, :afterNumber)
+                   ORDER BY ii.inventory_id, ii.inventory_number
+                   LIMIT :size)
+                  UNION ALL
+                  (SELECT NULL, r.inventory_id, CAST(g.n AS int), NULL, r.building_id
+                   FROM inventory i
+                            JOIN inventory_item_range r ON r.inventory_id = i.id
+                            CROSS JOIN LATERAL (SELECT CASE
+                                                           WHEN r.inventory_id = :afterInventoryId
+                                                               THEN greatest(r.start_number, :from, CAST(:afterNumber AS bigint) + 1)
+                                                           ELSE greatest(r.start_number, :from) END AS low) b
+                            CROSS JOIN LATERAL generate_series(b.low, least(r.end_number, :to, b.low + :size - 1)) AS g (n)
+                   WHERE i.inventory_sign = :sign
+                     AND r.inventory_id >= :afterInventoryId
+                     AND r.start_number <= :to
+                     AND r.end_number >= :from)) numbered (id, inventory_id, inventory_number, room_id, building_id)
+            ORDER BY inventory_id, inventory_number
+            LIMIT :size
+            """)
+    Flux<InventoryItem> findAllByNumberRange(String sign, int from, int to, int afterInventoryId, int afterNumber, int size);
+
+    /**
+     * Same numbers as {@link #findAllByNumberRange}, collapsed into runs of consecutive numbers in the same room and
+     * building. The cursor is the inventory and end number of the last run; runs never overlap, so the next page
+     * starts right after it. Ranges stay one row each.
+     * <p>
+     * A page reads at most {@code scanLimit} item rows. When the scan stops at that limit, the run holding the last
+     * scanned row may go on beyond it, so that run and everything after it is left to the next page and the rows are
+     * marked truncated; only if it is the first run of the page is it returned as far as it was scanned.
+     */
+    @Query("""
+            WITH scanned AS (SELECT ii.inventory_id, ii.inventory_number, ii.room_id, ii.building_id
+                             FROM inventory i
+                                      JOIN inventory_item ii ON ii.inventory_id = i.id
+                             WHERE i.inventory_sign = :sign
+                               AND ii.inventory_number BETWEEN :from AND :to
+                               AND (ii.inventory_id, ii.inventory_number) > (:afterInventoryId, :afterNumber)
+                             ORDER BY ii.inventory_id, ii.inventory_number
+                             LIMIT :scanLimit),
+                 placed AS (SELECT inventory_id,
+                                   inventory_number,
+                                   room_id,
+                                   building_id,
+                                   inventory_number - row_number() OVER (PARTITION BY inventory_id, room_id, building_id
+                                                                         ORDER BY inventory_number) AS island
+                            FROM scanned),
+                 item_runs AS (SELECT inventory_id,
+                                      min(inventory_number) AS start_number,
+                                      max(inventory_number) AS end_number,
+                                      room_id,
+                                      building_id
+                               FROM placed
+                               GROUP BY inventory_id, room_id, building_id, island),
+                 runs AS (SELECT *
+                          FROM item_runs
+                          UNION ALL
+                          SELECT r.inventory_id,
+                                 CAST(CASE
+                                          WHEN r.inventory_id = :afterInventoryId
+                                              THEN greatest(r.start_number, :from, CAST(:afterNumber AS bigint) + 1)
+                                          ELSE greatest(r.start_number, :from) END AS int),
+                                 least(r.end_number, :to),
+                                 NULL,
+                                 r.building_id
+                          FROM inventory i
+                                   JOIN inventory_item_range r ON r.inventory_id = i.id
+                          WHERE i.inventory_sign = :sign
+                            AND (r.inventory_id, r.end_number) > (:afterInventoryId, :afterNumber)
+                            AND r.start_number <= :to
+                            AND r.end_number >= :from),
+                 frontier AS (SELECT inventory_id, start_number
+                              FROM item_runs
+                              WHERE (SELECT count(*) FROM scanned) = :scanLimit
+                              ORDER BY inventory_id DESC, end_number DESC
+                              LIMIT 1),
+                 first_run AS (SELECT inventory_id, start_number
+                               FROM runs
+                               ORDER BY inventory_id, start_number
+                               LIMIT 1)
+            SELECT r.*, EXISTS(SELECT 1 FROM frontier) AS truncated
+            FROM runs r
+            WHERE NOT EXISTS(SELECT 1
+                             FROM frontier f
+                             WHERE (r.inventory_id, r.start_number) >= (f.inventory_id, f.start_number)
+                               AND (r.inventory_id, r.start_number) <> (SELECT inventory_id, start_number FROM first_run))
+            ORDER BY r.inventory_id, r.start_number
+            LIMIT :size
+            """)
+    Flux<InventoryNumberRunRow> findRunsByNumberRange(String sign, int from, int to, int afterInventoryId, int afterNumber,
+                                                      int size, int scanLimit);
+
+    /**
+     * Inserts the item unless its number belongs to a run of the inventory, in one statement. The covering run is
+     * read FOR SHARE, so an insert racing the split of that run waits for it and then hits the split-off item on the
+     * unique key. Nothing is returned when the number is in a run.
+     */
+    @Query("""
+            INSERT INTO inventory_item (inventory_id, inventory_number, building_id, room_id)
+            SELECT :inventoryId, :inventoryNumber, :buildingId, :roomId
+            WHERE NOT EXISTS(SELECT 1
+                             FROM inventory_item_range r
+                             WHERE r.inventory_id = :inventoryId
+                               AND :inventoryNumber BETWEEN r.start_number AND r.end_number
+                             FOR SHARE)
+            RETURNING *
+            """)
+    Mono<InventoryItem> insertOutsideRanges(Integer inventoryId, Integer inventoryNumber, Integer buildingId, Integer roomId);
+
+    /**
+     * Renumbers the item unless the new number belongs to a run of the inventory; see {@link #insertOutsideRanges}.
+     */
+    @Query("""
+            UPDATE inventory_item
+            SET inventory_id     = :inventoryId,
+                inventory_number = :inventoryNumber,
+                building_id      = :buildingId,
+                room_id          = :roomId
+            WHERE id = :id
+              AND NOT EXISTS(SELECT 1
+                             FROM inventory_item_range r
+                             WHERE r.inventory_id = :inventoryId
+                               AND :inventoryNumber BETWEEN r.start_number AND r.end_number
+                             FOR SHARE)
+            RETURNING *
+            """)
+    Mono<InventoryItem> updateOutsideRanges(Integer id, Integer inventoryId, Integer inventoryNumber, Integer buildingId, Integer roomId);
+
+    /**
+     * Streams every item that is placed in a room; used to fill {@link SignNumberIndex}.
+     */
+    @Query("SELECT * FROM inventory_item WHERE room_id IS NOT NULL")
+    Flux<InventoryItem> findAllPlaced();
+
+    /**
+     * The oldest transaction still running; every change committed from now on is logged with a txid at or above it.
+     */
+    @Query("SELECT txid_snapshot_xmin(txid_current_snapshot())")
+    Mono<Long> findChangeHorizon();
+
+    /**
+     * The current state of every (inventory, number) logged in inventory_item_change at or above the horizon. A
+     * deleted item comes back with only its inventory id and number set.
+     */
+    @Query("""
+            SELECT c.inventory_id, c.inventory_number, i.id, i.room_id, i.building_id
+            FROM (SELECT DISTINCT inventory_id, inventory_number
+                  FROM inventory_item_change
+                  WHERE txid >= :horizon) c
+                     LEFT JOIN inventory_item i
+                               ON i.inventory_id = c.inventory_id AND i.inventory_number = c.inventory_number
+            """)
+    Flux<InventoryItem> findChangedSince(long horizon);
+
+    @Modifying
+    @Query("DELETE FROM inventory_item_change WHERE changed_at < now() - make_interval(secs => :retentionSeconds)")
+    Mono<Integer> deleteChangesOlderThan(long retentionSeconds);
+
+    @Query("""
+            UPDATE inventory_item
+            SET room_id     = :roomId,
+                building_id = :buildingId
+            WHERE id = ANY (:ids)
+            RETURNING *
+            """)
+    Flux<InventoryItem> relocateByIds(Integer[] ids, Integer roomId, Integer buildingId);
+
+    @Query("""
+            UPDATE inventory_item
+            SET room_id     = :roomId,
+                building_id = :buildingId
+            WHERE inventory_id = :inventoryId
+              AND inventory_number BETWEEN :start AND :end
+            RETURNING *
+            """)
+    Flux<InventoryItem> relocateByNumberRange(Integer inventoryId, int start, int end, Integer roomId, Integer buildingId);
+
+    /**
+     * Moves up to {@code quantity} items of the inventory from one building to another, leaving their room empty.
+     * Rows locked by a concurrent transfer are skipped rather than waited for, so parallel transfers of the same
+     * inventory neither block each other nor pick the same items.
+     */
+    @Query("""
+            WITH picked AS (SELECT id
+                            FROM inventory_item
+                            WHERE inventory_id = :inventoryId
+                              AND building_id = :fromBuildingId
+                            ORDER BY inventory_number
+                            LIMIT :quantity FOR UPDATE SKIP LOCKED)
+            UPDATE inventory_item ii
+            SET building_id = :toBuildingId,
+                room_id     = NULL
+            FROM picked
+            WHERE ii.id = picked.id
+            RETURNING ii.*
+            """)
+    Flux<InventoryItem> transfer(Integer inventoryId, Integer fromBuildingId, Integer toBuildingId, int quantity);
+
+    @Query("DELETE FROM inventory_item WHERE id = :id RETURNING *")
+    Mono<InventoryItem> deleteByIdReturning(Integer id);
+
+    /**
+     * Inserts the items numbered {@code start..end} in one statement without materializing them in the JVM.
+     * Numbers the inventory already has are skipped, so the returned count is short by the number of conflicts.
+     */
+    @Modifying
+    @Query("""
+            INSERT INTO inventory_item (inventory_id, inventory_number, building_id)
+            SELECT :inventoryId, n, :buildingId
+            FROM generate_series(:start, :end) AS n
+            ON CONFLICT (inventory_number, inventory_id) DO NOTHING
+            """)
+    Mono<Integer> insertRange(Integer inventoryId, Integer buildingId, int start, int end);
+
+    @Query("""
+            SELECT * FROM inventory_item
+            ORDER BY id
+            LIMIT :size OFFSET :offset
+            """)
+    Flux<InventoryItem> findPage(long offset, int size);
+
+    @Query("""
+            SELECT * FROM inventory_item
+            WHERE id > :after
+            ORDER BY id
+            LIMIT :size
+            """)
+    Flux<InventoryItem> findAllAfter(int after, int size);
 }
@@ -2,18 +2,39 @@ package org.example.inventoryservice.inventoryitem;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.inventoryservice.cache.RoomInfoCache;
 import org.example.inventoryservice.exception.CustomBadRequestException;
+import org.example.inventoryservice.exception.CustomGeneralException;
 import org.example.inventoryservice.exception.ResourceNotFoundException;
 import org.example.inventoryservice.exception.UniqueKeyException;
+import org.example.inventoryservice.exception.WrongInputRangeException;
 import org.example.inventoryservice.inventory.InventoryRepository;
 import org.example.inventoryservice.inventoryitem.dto.InventoryItemDto;
 import org.example.inventoryservice.inventoryitem.dto.InventoryItemWithRoomInfoDto;
+import org.example.inventoryservice.inventoryitem.dto.InventoryNumberRunDto;
+import org.example.inventoryservice.inventoryitem.dto.RelocateRequestDto;
+import org.example.inventoryservice.inventoryitem.dto.RelocateResultDto;
 import org.example.inventoryservice.inventoryitem.dto.RoomDto;
+import org.example.inventoryservice.inventoryitem.dto.SignNumberItemDto;
+import org.example.inventoryservice.inventoryitem.dto.SignNumberLookupDto;
+import org.example.inventoryservice.inventoryitem.dto.SignNumberSuggestionDto;
+import org.example.inventoryservice.payload.Cursor;
+import org.example.inventoryservice.payload.CursorPage;
+import org.example.inventoryservice.payload.LikePattern;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -22,9 +43,23 @@ import java.util.regex.Pattern;
 @Slf4j
 public class InventoryItemService {
 
+    static final int MAX_AUTOCOMPLETE_LIMIT = 100;
+    static final int MAX_RELOCATE_SIZE = 100_000;
+    static final int MAX_ALLOCATION_RETRIES = 3;
+    static final int MAX_LOOKUP_SIZE = 10_000;
+    static final int MAX_RANGE_PAGE_SIZE = 1_000;
+    /**
+     * Item rows a runs page may read per requested run, so a page costs O(size) even where runs are long.
+     */
+    static final int RUN_SCAN_FACTOR = 16;
+    private static final Pattern SIGN_NUMBER_PREFIX = Pattern.compile("(\\p{Alpha}+)(\\d*)");
+
     private final InventoryItemRepository inventoryItemRepository;
     private final InventoryRepository inventoryRepository;
-    private final WebClient.Builder webClientBuilder;
+    private final RoomInfoCache roomInfoCache;
+    private final SignNumberIndex signNumberIndex;
+    private final InventoryItemRangeService inventoryItemRangeService;
+    private final InventoryNumberAllocator inventoryNumberAllocator;
 
 
     public Flux<InventoryItem> getAllInventoryItems(int page, int size) {
@@ -32,9 +67,61 @@ public class InventoryItemService {
             log.error("Bad request...");
             return Flux.error(() -> new CustomBadRequestException("Page and size should not be less than 1"));
         }
-        return inventoryItemRepository.findAll()
-                .skip((long) page * size)
-                .take(size);
+        return inventoryItemRepository.findPage((long) page * size, size);
+    }
+
+    public Mono<CursorPage<InventoryItem>> getInventoryItemsAfter(String after, int size) {
+        if (size <= 0) {
+            log.error("Bad request...");
+            return Mono.error(() -> new CustomBadRequestException("Size should not be less than 1"));
+        }
+        return Mono.fromCallable(() -> Cursor.decodeId(after))
+                .flatMapMany(afterId -> inventoryItemRepository.findAllAfter(afterId, size))
+                .collectList()
+                .map(inventoryItems -> CursorPage.of(inventoryItems, size, InventoryItem::getId));
+    }
+
+    /**
+     * Answers "where are tags A1000..A5000" with one keyset-paged range scan instead of a search per tag. Items are
+     * ordered by inventory and number; numbers without an item are skipped.
+     */
+    public Mono<CursorPage<InventoryItem>> getInventoryItemsByNumberRange(String sign, int from, int to, String after, int size) {
+        return checkNumberRange(sign, from, to, size)
+                .then(Mono.fromCallable(() -> Cursor.decodeNumbered(after)))
+                .flatMapMany(cursor -> inventoryItemRepository.findAllByNumberRange(
+                        sign, from, to, cursor.inventoryId(), cursor.inventoryNumber(), size))
+                .collectList()
+                .map(inventoryItems -> CursorPage.withCursor(inventoryItems, size,
+                        last -> Cursor.encodeNumbered(last.getInventoryId(), last.getInventoryNumber())));
+    }
+
+    /**
+     * The condensed form of {@link #getInventoryItemsByNumberRange}: consecutive numbers in the same room come back
+     * as one run, so a range that sits in a few rooms takes a few rows instead of one per tag.
+     */
+    public Mono<CursorPage<InventoryNumberRunDto>> getInventoryNumberRuns(String sign, int from, int to, String after, int size) {
+        return checkNumberRange(sign, from, to, size)
+                .then(Mono.fromCallable(() -> Cursor.decodeNumbered(after)))
+                .flatMapMany(cursor -> inventoryItemRepository.findRunsByNumberRange(
+                        sign, from, to, cursor.inventoryId(), cursor.inventoryNumber(), size, size * RUN_SCAN_FACTOR))
+                .collectList()
+                .map(rows -> {
+                    List<InventoryNumberRunDto> runs = rows.stream().map(InventoryNumberRunRow::toDto).toList();
+                    // a page cut short by the item scan is not the last one
+                    boolean more = rows.size() == size || (!rows.isEmpty() && rows.get(0).getTruncated());
+                    InventoryNumberRunDto last = more ? runs.get(runs.size() - 1) : null;
+                    return new CursorPage<>(runs, more ? Cursor.encodeNumbered(last.getInventoryId(), last.getEndNumber()) : null);
+                });
+    }
+
+    private static Mono<Void> checkNumberRange(String sign, int from, int to, int size) {
+        if (sign == null || sign.isBlank())
+            return Mono.error(() -> new CustomBadRequestException("Inventory sign is required"));
+        if (from < 0 || from > to)
+            return Mono.error(WrongInputRangeException::new);
+        if (size <= 0 || size > MAX_RANGE_PAGE_SIZE)
+            return Mono.error(() -> new CustomBadRequestException("Size should be between 1 and " + MAX_RANGE_PAGE_SIZE));
+        return Mono.empty();
     }
 
     public Mono<InventoryItemDto> getInventoryItemById(Integer id) {
@@ -48,51 +135,282 @@ public class InventoryItemService {
                 inventoryItemDto.getInventoryNumber(),
                 inventoryItemDto.getBuildingId()
         );
-        return inventoryItemRepository.save(build)
-                .onErrorMap(e -> new UniqueKeyException("InventoryItem with the same name already exists."));
+        if (build.getInventoryNumber() == null)
+            return addWithAllocatedNumber(build);
+        return inventoryItemRepository.insertOutsideRanges(build.getInventoryId(), build.getInventoryNumber(),
+                        build.getBuildingId(), build.getRoomId())
+                .onErrorMap(e -> new UniqueKeyException("InventoryItem with the same name already exists."))
+                .switchIfEmpty(Mono.error(() -> new UniqueKeyException("InventoryItem with the same sign and number already exists.")))
+                .doOnNext(signNumberIndex::put);
+    }
+
+    /**
+     * Saves the item under the next number {@link InventoryNumberAllocator} hands out. Allocated numbers are above
+     * every range, so only a number picked by hand inside a reserved block can still collide; the item then takes
+     * the next number.
+     */
+    private Mono<InventoryItem> addWithAllocatedNumber(InventoryItem inventoryItem) {
+        return Mono.defer(() -> inventoryNumberAllocator.next(inventoryItem.getInventoryId()))
+                .flatMap(number -> {
+                    inventoryItem.setInventoryNumber(number);
+                    return inventoryItemRepository.save(inventoryItem);
+                })
+                .retryWhen(Retry.max(MAX_ALLOCATION_RETRIES).filter(DuplicateKeyException.class::isInstance))
+                // only running out of retries is an allocation failure; other errors keep their cause
+                .onErrorMap(Exceptions::isRetryExhausted,
+                        e -> new UniqueKeyException("Could not allocate an inventory number for inventory " + inventoryItem.getInventoryId()))
+                .doOnNext(signNumberIndex::put);
     }
 
     public Mono<InventoryItem> updateInventoryItem(Integer id, InventoryItemDto inventoryItemDto) {
         // TODO: 01/02/23 check if room still exist
         return inventoryItemRepository.findById(id)
                 .flatMap(existingInventoryItem -> {
+                    Integer previousInventoryId = existingInventoryItem.getInventoryId();
+                    Integer previousInventoryNumber = existingInventoryItem.getInventoryNumber();
                     existingInventoryItem.setInventoryNumber(inventoryItemDto.getInventoryNumber());
                     existingInventoryItem.setRoomId(inventoryItemDto.getRoomId());
                     existingInventoryItem.setBuildingId(inventoryItemDto.getBuildingId());
                     existingInventoryItem.setInventoryId(inventoryItemDto.getInventoryId());
-                    return inventoryItemRepository.save(existingInventoryItem);
+                    boolean renumbered = !previousInventoryId.equals(inventoryItemDto.getInventoryId())
+                            || !previousInventoryNumber.equals(inventoryItemDto.getInventoryNumber());
+                    Mono<InventoryItem> write = !renumbered
+                            ? inventoryItemRepository.save(existingInventoryItem)
+                            : inventoryItemRepository.updateOutsideRanges(id, existingInventoryItem.getInventoryId(),
+                                            existingInventoryItem.getInventoryNumber(), existingInventoryItem.getBuildingId(),
+                                            existingInventoryItem.getRoomId())
+                                    .switchIfEmpty(Mono.error(() -> new UniqueKeyException("InventoryItem with the same sign and number already exists.")));
+                    return write
+                            .doOnNext(saved -> {
+                                if (renumbered)
+                                    signNumberIndex.remove(previousInventoryId, previousInventoryNumber);
+                                signNumberIndex.put(saved);
+                            });
                 })
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("InventoryItem", id)));
     }
 
     public Mono<Boolean> deleteInventoryItem(Integer id) {
-        return inventoryItemRepository.deleteById(id)
-                .flatMap(unused -> Mono.just(true));
+        return inventoryItemRepository.deleteByIdReturning(id)
+                .doOnNext(deleted -> {
+                    signNumberIndex.remove(deleted.getInventoryId(), deleted.getInventoryNumber());
+                    inventoryNumberAllocator.release(deleted.getInventoryId(), deleted.getInventoryNumber());
+                })
+                .map(deleted -> true);
     }
 
+    /**
+     * Served from {@link SignNumberIndex} once it is loaded, from the database before that.
+     */
     public Flux<InventoryItemWithRoomInfoDto> getInventoryItemRoomInfoBySignNumber(String inventorySignNumber, int page, int size) {
         if (page < 0 || size <= 0)
             return Flux.error(() -> new CustomBadRequestException("Page and size should not be less than 1"));
-        String pattern = "(\\p{Alpha}+)(\\d+)";
-        Matcher matcher = Pattern.compile(pattern).matcher(inventorySignNumber);
-        if (!matcher.find())
-            return Flux.error(new CustomBadRequestException("Wrong input patter. You should input letters first. Example: \"A23\""));
-        String inventorySign = matcher.group(1);
-        Integer inventoryNumber = Integer.valueOf(matcher.group(2));
-
-        return inventoryItemRepository.findByInventorySignAndNumber(inventorySign, inventoryNumber, page, size)
-                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Inventory item with room not found")))
-                .flatMap(inventoryItemDto -> webClientBuilder.build()
-                        .get()
-                        .uri("http://BUILDING-SERVICE/api/v1/rooms/{id}", inventoryItemDto.getRoomId())
-                        .retrieve()
-                        .bodyToMono(RoomDto.class)
-                        .onErrorMap(throwable -> {
-                            System.out.println(throwable.getMessage());
-                            return new ResourceNotFoundException("Room", inventoryItemDto.getRoomId());
+        return Mono.fromCallable(() -> SignNumber.parse(inventorySignNumber))
+                .flatMap(signNumber -> signNumberIndex.find(signNumber.inventorySign(), signNumber.inventoryNumber())
+                        .map(inventoryItems -> Mono.just(page(inventoryItems, page, size)))
+                        .orElseGet(() -> inventoryItemRepository.findByInventorySignAndNumber(
+                                        signNumber.inventorySign(), signNumber.inventoryNumber(), page, size)
+                                .collectList()))
+                .flatMapMany(inventoryItems -> {
+                    if (inventoryItems.isEmpty())
+                        return Flux.error(new ResourceNotFoundException("Inventory item with room not found"));
+                    return getRoomsByIds(inventoryItems)
+                            .flatMapMany(rooms -> Flux.fromIterable(inventoryItems)
+                                    .map(inventoryItemDto -> {
+                                        RoomDto roomDto = rooms.get(inventoryItemDto.getRoomId());
+                                        if (roomDto == null)
+                                            throw new ResourceNotFoundException("Room", inventoryItemDto.getRoomId());
+                                        return new InventoryItemWithRoomInfoDto(inventoryItemDto, roomDto);
+                                    }));
+                });
+    }
 
+    /**
+     * Resolves a batch of scanned sign-numbers with one query and one room lookup, instead of a search per tag.
+     * Results come back in input order, one per tag, and also cover items that are not placed in a room.
+     */
+    public Flux<SignNumberLookupDto> lookup(List<String> signNumbers) {
+        if (signNumbers == null || signNumbers.isEmpty())
+            return Flux.error(() -> new CustomBadRequestException("You should input at least one sign-number"));
+        if (signNumbers.size() > MAX_LOOKUP_SIZE)
+            return Flux.error(() -> new CustomBadRequestException("You can look up at most " + MAX_LOOKUP_SIZE + " sign-numbers at once"));
+        Map<String, SignNumber> parsed = new LinkedHashMap<>();
+        Map<String, String> invalid = new HashMap<>();
+        for (String signNumber : signNumbers) {
+            if (signNumber == null || parsed.containsKey(signNumber) || invalid.containsKey(signNumber))
+                continue;
+            try {
+                parsed.put(signNumber, SignNumber.parse(signNumber));
+            } catch (CustomBadRequestException e) {
+                invalid.put(signNumber, e.getMessage());
+            }
+        }
+        List<SignNumber> tags = parsed.values().stream().distinct().toList();
+        Flux<SignNumberItemDto> found = tags.isEmpty()
+                ? Flux.empty()
+                : inventoryItemRepository.findAllBySignNumbers(
+                tags.stream().map(SignNumber::inventorySign).toArray(String[]::new),
+                tags.stream().map(SignNumber::inventoryNumber).toArray(Integer[]::new));
+        return found.collectList()
+                .flatMap(items -> {
+                    List<Integer> roomIds = items.stream().map(SignNumberItemDto::getRoomId).filter(Objects::nonNull).distinct().toList();
+                    Mono<Map<Integer, RoomDto>> rooms = roomIds.isEmpty() ? Mono.just(Map.of()) : getRooms(roomIds);
+                    return rooms.map(roomsById -> {
+                        Map<String, List<InventoryItemWithRoomInfoDto>> bySignNumber = new HashMap<>();
+                        items.stream()
+                                .sorted(Comparator.comparing(SignNumberItemDto::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                                .forEach(item -> bySignNumber.computeIfAbsent(item.getSignNumber(), key -> new ArrayList<>())
+                                        .add(withRoomInfo(item, roomsById.get(item.getRoomId()))));
+                        return bySignNumber;
+                    });
+                })
+                // a stream rather than a Flux, since a missing tag is a null element and still gets its answer
+                .flatMapIterable(bySignNumber -> signNumbers.stream()
+                        .map(signNumber -> {
+                            SignNumber tag = signNumber == null ? null : parsed.get(signNumber);
+                            if (tag == null)
+                                return SignNumberLookupDto.builder()
+                                        .signNumber(signNumber)
+                                        .status(SignNumberLookupDto.INVALID)
+                                        .message(signNumber == null ? "Sign-number is missing" : invalid.get(signNumber))
+                                        .build();
+                            List<InventoryItemWithRoomInfoDto> items = bySignNumber.getOrDefault(tag.inventorySign() + tag.inventoryNumber(), List.of());
+                            return SignNumberLookupDto.builder()
+                                    .signNumber(signNumber)
+                                    .status(items.isEmpty() ? SignNumberLookupDto.NOT_FOUND : SignNumberLookupDto.FOUND)
+                                    .items(items)
+                                    .build();
                         })
-                        .map(roomDto -> new InventoryItemWithRoomInfoDto(inventoryItemDto, roomDto))); // todo: Refactor
+                        .toList());
+    }
+
+    /**
+     * Moves the items into a room with a single UPDATE, instead of one read and one write per item. The room is
+     * checked through the room cache and supplies the building when none is given. Ids or numbers that match no item
+     * are counted as missing.
+     */
+    public Mono<RelocateResultDto> relocate(RelocateRequestDto relocateRequestDto) {
+        Integer roomId = relocateRequestDto.getRoomId();
+        if (roomId == null)
+            return Mono.error(() -> new CustomBadRequestException("Room id is required"));
+        boolean byIds = relocateRequestDto.getItemIds() != null && !relocateRequestDto.getItemIds().isEmpty();
+        boolean byRange = relocateRequestDto.getInventoryId() != null
+                && relocateRequestDto.getStartNumber() != null && relocateRequestDto.getEndNumber() != null;
+        if (byIds == byRange)
+            return Mono.error(() -> new CustomBadRequestException("You should input either item ids or inventory id with start and end numbers"));
+        Integer[] ids = byIds
+                ? relocateRequestDto.getItemIds().stream().filter(Objects::nonNull).distinct().toArray(Integer[]::new)
+                : null;
+        if (byRange && relocateRequestDto.getStartNumber() > relocateRequestDto.getEndNumber())
+            return Mono.error(WrongInputRangeException::new);
+        long requested = byIds
+                ? ids.length
+                : (long) relocateRequestDto.getEndNumber() - relocateRequestDto.getStartNumber() + 1;
+        if (requested > MAX_RELOCATE_SIZE)
+            return Mono.error(() -> new CustomBadRequestException("You can relocate at most " + MAX_RELOCATE_SIZE + " items at once"));
+
+        return getRooms(List.of(roomId))
+                .flatMap(rooms -> {
+                    RoomDto room = rooms.get(roomId);
+                    if (room == null)
+                        return Mono.error(new ResourceNotFoundException("Room", roomId));
+                    Integer buildingId = room.getBuildingId();
+                    if (relocateRequestDto.getBuildingId() != null && !relocateRequestDto.getBuildingId().equals(buildingId))
+                        return Mono.error(new CustomBadRequestException("Room " + roomId + " is not in building " + relocateRequestDto.getBuildingId()));
+                    Flux<InventoryItem> moved = byIds
+                            ? inventoryItemRepository.relocateByIds(ids, roomId, buildingId)
+                            : inventoryItemRangeService.materialize(relocateRequestDto.getInventoryId(),
+                                    relocateRequestDto.getStartNumber(), relocateRequestDto.getEndNumber())
+                            .thenMany(inventoryItemRepository.relocateByNumberRange(relocateRequestDto.getInventoryId(),
+                                    relocateRequestDto.getStartNumber(), relocateRequestDto.getEndNumber(), roomId, buildingId));
+                    return moved.collectList()
+                            .map(items -> {
+                                signNumberIndex.putAll(items);
+                                log.info("Relocated {} of {} inventory items to room {}", items.size(), requested, roomId);
+                                return new RelocateResultDto(roomId, buildingId, items.size(), requested - items.size());
+                            });
+                });
+    }
+
+    /**
+     * Suggests sign-numbers starting with {@code prefix}, ordered by number. A prefix with digits matches its sign
+     * exactly, a prefix of letters only matches every sign starting with them.
+     */
+    public Flux<SignNumberSuggestionDto> autocomplete(String prefix, int limit) {
+        if (limit <= 0 || limit > MAX_AUTOCOMPLETE_LIMIT)
+            return Flux.error(() -> new CustomBadRequestException("Limit should be between 1 and " + MAX_AUTOCOMPLETE_LIMIT));
+        Matcher matcher = SIGN_NUMBER_PREFIX.matcher(prefix.strip());
+        if (!matcher.matches())
+            return Flux.error(() -> new CustomBadRequestException("Prefix should be letters optionally followed by digits. Example: \"A23\""));
+        String inventorySign = matcher.group(1);
+        String digits = matcher.group(2);
+        List<int[]> ranges = numberRanges(digits);
+        if (ranges.isEmpty())
+            return Flux.empty();
+        return inventoryItemRepository.autocomplete(
+                digits.isEmpty() ? LikePattern.startsWith(inventorySign) : LikePattern.exactly(inventorySign),
+                ranges.stream().map(range -> range[0]).toArray(Integer[]::new),
+                ranges.stream().map(range -> range[1]).toArray(Integer[]::new),
+                limit);
+    }
+
+    /**
+     * Numbers whose decimal form starts with {@code digits}, as one range per length: 23 gives 23, 230-239,
+     * 2300-2399 and so on up to the int range. Numbers are stored without leading zeros.
+     */
+    static List<int[]> numberRanges(String digits) {
+        if (digits.isEmpty())
+            return List.of(new int[]{0, Integer.MAX_VALUE});
+        if (digits.length() > 10 || (digits.length() > 1 && digits.charAt(0) == '0'))
+            return List.of();
+        long start = Long.parseLong(digits);
+        if (start == 0)
+            return List.of(new int[]{0, 0});
+        List<int[]> ranges = new ArrayList<>();
+        for (long end = start; start <= Integer.MAX_VALUE; start *= 10, end = end * 10 + 9)
+            ranges.add(new int[]{(int) start, (int) Math.min(end, Integer.MAX_VALUE)});
+        return ranges;
+    }
+
+    private static <T> List<T> page(List<T> items, int page, int size) {
+        long from = (long) page * size;
+        if (from >= items.size())
+            return List.of();
+        return items.subList((int) from, (int) Math.min(items.size(), from + size));
+    }
+
+    /**
+     * Resolves the rooms of a whole page through the room cache; only rooms it does not hold yet are requested
+     * from building-service, in one batch call.
+     */
+    private Mono<Map<Integer, RoomDto>> getRoomsByIds(List<InventoryItemDto> inventoryItems) {
+        return getRooms(inventoryItems.stream()
+                .map(InventoryItemDto::getRoomId)
+                .distinct()
+                .toList());
+    }
+
+    /**
+     * Room fields stay empty for items without a room, or whose room building-service does not know anymore.
+     */
+    private static InventoryItemWithRoomInfoDto withRoomInfo(SignNumberItemDto item, RoomDto room) {
+        InventoryItemDto inventoryItemDto = InventoryItemDto.builder()
+                .id(item.getId())
+                .inventoryId(item.getInventoryId())
+                .inventoryNumber(item.getInventoryNumber())
+                .inventoryName(item.getInventoryName())
+                .build();
+        RoomDto roomDto = room != null
+                ? room
+                : RoomDto.builder().id(item.getRoomId()).buildingId(item.getBuildingId()).build();
+        return new InventoryItemWithRoomInfoDto(inventoryItemDto, roomDto);
+    }
 
+    private Mono<Map<Integer, RoomDto>> getRooms(List<Integer> roomIds) {
+        return roomInfoCache.getAll(roomIds)
+                .onErrorMap(throwable -> {
+                    log.error("Failed to load rooms {}: {}", roomIds, throwable.getMessage());
+                    return new CustomGeneralException("Could not load room information");
+                });
     }
 }
@@ -0,0 +1,104 @@
+package org.example.inventoryservice.inventoryitem;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out free inventory numbers per inventory, hi-lo style: each instance reserves a block of numbers from the
+ * inventory's row in inventory_number_counter and serves the block from memory with a single atomic increment per
+ * number. Only an exhausted block goes back to the database, and concurrent callers share that one reservation.
+ * <p>
+ * Numbers of a block that is still unused when the instance stops are skipped for good. With gap reuse enabled,
+ * numbers of items deleted through this instance are handed out again before the block; they are kept in memory
+ * only, so gaps left by a restart or by another instance stay unused.
+ */
+@Component
+@Slf4j
+public class InventoryNumberAllocator {
+
+    private final InventoryNumberCounterRepository inventoryNumberCounterRepository;
+    private final int blockSize;
+    private final boolean reuseGaps;
+    private final Map<Integer, Block> blocks = new ConcurrentHashMap<>();
+    private final Map<Integer, Mono<Void>> reservations = new ConcurrentHashMap<>();
+    private final Map<Integer, Queue<Integer>> released = new ConcurrentHashMap<>();
+
+    public InventoryNumberAllocator(InventoryNumberCounterRepository inventoryNumberCounterRepository,
+                                    @Value("${inventory-service.number-allocation.block-size:100}") int blockSize,
+                                    @Value("${inventory-service.number-allocation.reuse-gaps:false}") boolean reuseGaps) {
+        if (blockSize < 1)
+            throw new IllegalArgumentException("Number allocation block size should be at least 1");
+        this.inventoryNumberCounterRepository = inventoryNumberCounterRepository;
+        this.blockSize = blockSize;
+        this.reuseGaps = reuseGaps;
+    }
+
+    /**
+     * Returns a number of the inventory that no other caller of any instance is handed out.
+     */
+    public Mono<Integer> next(Integer inventoryId) {
+        return Mono.defer(() -> {
+            if (reuseGaps) {
+                Queue<Integer> free = released.get(inventoryId);
+                Integer number = free == null ? null : free.poll();
+                if (number != null)
+                    return Mono.just(number);
+            }
+            Block block = blocks.get(inventoryId);
+            if (block != null) {
+                int number = block.take();
+                if (number != Block.EXHAUSTED)
+                    return Mono.just(number);
+            }
+            return reserve(inventoryId, block).then(next(inventoryId));
+        });
+    }
+
+    /**
+     * Makes the number of a deleted item available again if gap reuse is enabled.
+     */
+    public void release(Integer inventoryId, Integer inventoryNumber) {
+        if (reuseGaps)
+            released.computeIfAbsent(inventoryId, id -> new ConcurrentLinkedQueue<>()).add(inventoryNumber);
+    }
+
+    private Mono<Void> reserve(Integer inventoryId, Block exhausted) {
+        // another caller may have replaced the block since it was read
+        if (blocks.get(inventoryId) != exhausted)
+            return Mono.empty();
+        return reservations.computeIfAbsent(inventoryId, id -> inventoryNumberCounterRepository.reserve(id, blockSize)
+                .doOnNext(start -> {
+                    blocks.put(id, new Block(start, start + blockSize - 1));
+                    log.debug("Reserved inventory numbers {}..{} of inventory {}", start, start + blockSize - 1, id);
+                })
+                .doFinally(signal -> reservations.remove(id))
+                .then()
+                .cache());
+    }
+
+    private static final class Block {
+        static final int EXHAUSTED = -1;
+
+        private final AtomicInteger next;
+        private final int end;
+
+        Block(int start, int end) {
+            this.next = new AtomicInteger(start);
+            this.end = end;
+        }
+
+        int take() {
+            // stop counting once past the end, so a drained block cannot overflow
+            int number = next.getAndUpdate(current -> current > end ? current : current + 1);
+            return number > end ? EXHAUSTED : number;
+        }
+    }
+}
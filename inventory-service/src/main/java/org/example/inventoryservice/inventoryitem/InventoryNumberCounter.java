@@ -0,0 +1,23 @@
+package org.example.inventoryservice.inventoryitem;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * The first inventory number of an inventory that no instance has reserved yet; see {@link InventoryNumberAllocator}.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+@Table
+public class InventoryNumberCounter {
+    @Id
+    private Integer inventoryId;
+
+    private Integer nextNumber;
+}
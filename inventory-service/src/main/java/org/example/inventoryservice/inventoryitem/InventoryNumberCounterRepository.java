@@ -0,0 +1,28 @@
+package org.example.inventoryservice.inventoryitem;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Mono;
+
+public interface InventoryNumberCounterRepository extends ReactiveCrudRepository<InventoryNumberCounter, Integer> {
+
+    /**
+     * Reserves {@code blockSize} consecutive numbers of the inventory and returns the first one. The row lock of the
+     * upsert serializes concurrent reservations; the counter never falls behind numbers that were picked by hand or
+     * stored as ranges, so a reserved block starts above every number in use at the time of the reservation.
+     */
+    @Query("""
+            INSERT INTO inventory_number_counter AS c (inventory_id, next_number)
+            SELECT :inventoryId,
+                   greatest((SELECT coalesce(max(inventory_number), 0)
+                             FROM inventory_item
+                             WHERE inventory_id = :inventoryId),
+                            (SELECT coalesce(max(end_number), 0)
+                             FROM inventory_item_range
+                             WHERE inventory_id = :inventoryId)) + 1 + :blockSize
+            ON CONFLICT (inventory_id) DO UPDATE
+                SET next_number = greatest(c.next_number, EXCLUDED.next_number - :blockSize) + :blockSize
+            RETURNING c.next_number - :blockSize
+            """)
+    Mono<Integer> reserve(Integer inventoryId, int blockSize);
+}
@@ -0,0 +1,28 @@
+package org.example.inventoryservice.inventoryitem;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.inventoryservice.inventoryitem.dto.InventoryNumberRunDto;
+
+/**
+ * One run of a runs page; {@code truncated} is set on every row of a page whose item scan stopped at its limit, so
+ * the page has a next cursor even when it holds fewer runs than requested.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class InventoryNumberRunRow {
+    private Integer inventoryId;
+    private Integer startNumber;
+    private Integer endNumber;
+    private Integer roomId;
+    private Integer buildingId;
+    private Boolean truncated;
+
+    public InventoryNumberRunDto toDto() {
+        return new InventoryNumberRunDto(inventoryId, startNumber, endNumber, roomId, buildingId);
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.inventoryservice.inventoryitem;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.inventoryservice.exception.CustomBadRequestException;
+import org.example.inventoryservice.inventoryitem.dto.TransferInfoDto;
+import org.example.inventoryservice.inventoryitem.dto.TransferInventoryDto;
+import org.example.inventoryservice.inventoryitem.dto.TransferResultDto;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Transfers quantities of inventories between buildings. The items are picked by the database with
+ * {@code FOR UPDATE SKIP LOCKED}, so concurrent transfers from the same building each get their own items, and the
+ * whole transfer commits or fails as one transaction.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryTransferService {
+
+    private final InventoryItemRepository inventoryItemRepository;
+    private final InventoryItemRangeService inventoryItemRangeService;
+    private final SignNumberIndex signNumberIndex;
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * Moves the requested quantity of every inventory to {@code toBuildingId}; transferred items leave their room.
+     * If a building holds fewer free items of an inventory than requested, nothing is transferred.
+     */
+    public Mono<TransferResultDto> transfer(TransferInfoDto transferInfoDto) {
+        try {
+            validate(transferInfoDto);
+        } catch (CustomBadRequestException e) {
+            return Mono.error(e);
+        }
+        Integer from = transferInfoDto.getFromBuildingId();
+        Integer to = transferInfoDto.getToBuildingId();
+        return Flux.fromIterable(transferInfoDto.getInventories())
+                .concatMap(inventory -> transfer(inventory, from, to)
+                        .flatMap(items -> {
+                            if (items.size() < inventory.getQuantity())
+                                return Mono.error(new CustomBadRequestException("Only " + items.size() + " of " + inventory.getQuantity()
+                                        + " items of inventory " + inventory.getInventoryId() + " are available in building " + from));
+                            return Mono.just(items);
+                        }))
+                .<List<InventoryItem>>collect(ArrayList::new, List::addAll)
+                .as(transactionalOperator::transactional)
+                .map(items -> {
+                    signNumberIndex.putAll(items);
+                    log.info("Transferred {} inventory items from building {} to building {}", items.size(), from, to);
+                    return TransferResultDto.builder()
+                            .fromBuildingId(from)
+                            .toBuildingId(to)
+                            .description(transferInfoDto.getDescription())
+                            .inventories(transferInfoDto.getInventories())
+                            .itemIds(items.stream().map(InventoryItem::getId).toList())
+                            .build();
+                });
+    }
+
+    /**
+     * Takes items that have rows first and splits range-stored items only for the shortfall.
+     */
+    private Mono<List<InventoryItem>> transfer(TransferInventoryDto inventory, Integer from, Integer to) {
+        Integer inventoryId = inventory.getInventoryId();
+        return inventoryItemRepository.transfer(inventoryId, from, to, inventory.getQuantity())
+                .collectList()
+                .flatMap(items -> {
+                    int shortfall = inventory.getQuantity() - items.size();
+                    if (shortfall == 0)
+                        return Mono.just(items);
+                    return inventoryItemRangeService.materializeFirst(inventoryId, from, shortfall)
+                            .flatMap(materialized -> materialized == 0
+                                    ? Mono.just(items)
+                                    : inventoryItemRepository.transfer(inventoryId, from, to, shortfall)
+                                    .collectList()
+                                    .map(more -> {
+                                        List<InventoryItem> all = new ArrayList<>(items);
+                                        all.addAll(more);
+                                        return all;
+                                    }));
+                });
+    }
+
+    private static void validate(TransferInfoDto transferInfoDto) {
+        if (transferInfoDto.getFromBuildingId() == null || transferInfoDto.getToBuildingId() == null)
+            throw new CustomBadRequestException("From and to building ids are required");
+        if (Objects.equals(transferInfoDto.getFromBuildingId(), transferInfoDto.getToBuildingId()))
+            throw new CustomBadRequestException("From and to buildings should be different");
+        if (transferInfoDto.getInventories() == null || transferInfoDto.getInventories().isEmpty())
+            throw new CustomBadRequestException("At least one inventory is required");
+        for (TransferInventoryDto inventory : transferInfoDto.getInventories())
+            if (inventory.getInventoryId() == null || inventory.getQuantity() == null || inventory.getQuantity() <= 0)
+                throw new CustomBadRequestException("Every inventory needs an id and a positive quantity");
+    }
+}
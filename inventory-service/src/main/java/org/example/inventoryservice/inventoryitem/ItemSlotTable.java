@@ -0,0 +1,141 @@
+package org.example.inventoryservice.inventoryitem;
+
+/**
+ * Open-addressing hash table from an (inventory id, inventory number) key to the item id and room id, kept in
+ * primitive arrays so an entry costs three array slots instead of several objects. Not thread-safe on its own;
+ * lookups tolerate a concurrent writer in the sense that they never fail, but may return stale or torn results,
+ * which {@link SignNumberIndex} detects with its lock stamps.
+ */
+final class ItemSlotTable {
+
+    static final long NOT_FOUND = -1L;
+
+    private static final long EMPTY = 0L;
+    private static final long REMOVED = -1L;
+    private static final int MIN_CAPACITY = 1 << 10;
+
+    private Slots slots;
+    private int size;
+    private int used;
+
+    ItemSlotTable() {
+        this.slots = new Slots(MIN_CAPACITY);
+    }
+
+    static long key(int inventoryId, int inventoryNumber) {
+        return ((long) inventoryId << 32) | (inventoryNumber & 0xffffffffL);
+    }
+
+    static int itemId(long value) {
+        return (int) (value >>> 32);
+    }
+
+    static int roomId(long value) {
+        return (int) value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the item id and room id packed into one long (see {@link #itemId(long)}, {@link #roomId(long)}),
+     * or {@link #NOT_FOUND}.
+     */
+    long get(long key) {
+        Slots current = slots;
+        int mask = current.keys.length - 1;
+        for (int i = mix(key) & mask, probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+            long k = current.keys[i];
+            if (k == EMPTY)
+                return NOT_FOUND;
+            if (k == key)
+                return ((long) current.itemIds[i] << 32) | (current.roomIds[i] & 0xffffffffL);
+        }
+        return NOT_FOUND;
+    }
+
+    void put(long key, int itemId, int roomId) {
+        if ((used + 1) * 2 > slots.keys.length)
+            rehash(size + 1 > slots.keys.length / 4 ? slots.keys.length * 2 : slots.keys.length);
+        Slots current = slots;
+        int mask = current.keys.length - 1;
+        int free = -1;
+        int i = mix(key) & mask;
+        while (true) {
+            long k = current.keys[i];
+            if (k == key) {
+                current.itemIds[i] = itemId;
+                current.roomIds[i] = roomId;
+                return;
+            }
+            if (k == REMOVED && free < 0)
+                free = i;
+            if (k == EMPTY)
+                break;
+            i = (i + 1) & mask;
+        }
+        if (free < 0) {
+            free = i;
+            used++;
+        }
+        current.itemIds[free] = itemId;
+        current.roomIds[free] = roomId;
+        current.keys[free] = key;
+        size++;
+    }
+
+    boolean remove(long key) {
+        Slots current = slots;
+        int mask = current.keys.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            long k = current.keys[i];
+            if (k == EMPTY)
+                return false;
+            if (k == key) {
+                current.keys[i] = REMOVED;
+                size--;
+                return true;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        Slots old = slots;
+        Slots resized = new Slots(Math.max(capacity, MIN_CAPACITY));
+        int mask = resized.keys.length - 1;
+        for (int j = 0; j < old.keys.length; j++) {
+            long k = old.keys[j];
+            if (k == EMPTY || k == REMOVED)
+                continue;
+            int i = mix(k) & mask;
+            while (resized.keys[i] != EMPTY)
+                i = (i + 1) & mask;
+            resized.keys[i] = k;
+            resized.itemIds[i] = old.itemIds[j];
+            resized.roomIds[i] = old.roomIds[j];
+        }
+        used = size;
+        slots = resized;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * The three arrays are swapped together on rehash, so a reader never mixes arrays of different lengths.
+     */
+    private static final class Slots {
+        final long[] keys;
+        final int[] itemIds;
+        final int[] roomIds;
+
+        Slots(int capacity) {
+            this.keys = new long[capacity];
+            this.itemIds = new int[capacity];
+            this.roomIds = new int[capacity];
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.inventoryservice.inventoryitem;
+
+import org.example.inventoryservice.exception.CustomBadRequestException;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An inventory sign followed by an inventory number, as printed on the item labels, e.g. {@code A23}.
+ */
+public record SignNumber(String inventorySign, int inventoryNumber) {
+
+    private static final Pattern PATTERN = Pattern.compile("(\\p{Alpha}+)(\\d+)");
+
+    public static SignNumber parse(String inventorySignNumber) {
+        Matcher matcher = PATTERN.matcher(inventorySignNumber);
+        if (!matcher.find())
+            throw new CustomBadRequestException("Wrong input patter. You should input letters first. Example: \"A23\"");
+        try {
+            return new SignNumber(matcher.group(1), Integer.parseInt(matcher.group(2)));
+        } catch (NumberFormatException e) {
+            throw new CustomBadRequestException("Inventory number is too large: " + matcher.group(2));
+        }
+    }
+}
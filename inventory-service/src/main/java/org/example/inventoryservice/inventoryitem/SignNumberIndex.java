@@ -0,0 +1,270 @@
+package org.example.inventoryservice.inventoryitem;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.inventoryservice.inventory.Inventory;
+import org.example.inventoryservice.inventory.InventoryRepository;
+import org.example.inventoryservice.inventoryitem.dto.InventoryItemDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * In-memory index from (inventory sign, inventory number) to the items that are placed in a room, so a barcode
+ * scan does not have to query Postgres. Items are kept in an {@link ItemSlotTable} keyed by
+ * (inventory id, inventory number); signs are resolved to inventory ids through a small map of all inventories.
+ * <p>
+ * The index is filled once the application is ready by streaming inventory_item, and the item write paths keep it
+ * current after their writes complete. Until the initial load finishes {@link #find} returns empty and callers
+ * fall back to the database; writes made during the load win over the rows the load streams in.
+ * <p>
+ * Writes made by other instances, or straight in the database, reach the index through inventory_item_change, which
+ * triggers fill for every statement on inventory_item. Every few seconds the index re-reads the current state of the
+ * numbers logged since its horizon, the oldest transaction that was still running at the previous refresh, so a
+ * change is picked up no matter in which order the transactions commit and the index lags by at most one interval.
+ * The log is purged after the change retention, which is how long an instance may fail to refresh without missing
+ * changes for good.
+ */
+@Component
+@Slf4j
+public class SignNumberIndex {
+
+    private static final int LOAD_BATCH_SIZE = 1024;
+    private static final int[] NO_INVENTORIES = new int[0];
+
+    private final InventoryItemRepository inventoryItemRepository;
+    private final InventoryRepository inventoryRepository;
+    private final StampedLock lock = new StampedLock();
+    private final ItemSlotTable table = new ItemSlotTable();
+    private final Set<Long> writtenWhileLoading = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final Duration changeRetention;
+
+    private volatile Map<Integer, String> inventoryNames = Map.of();
+    private volatile Map<String, int[]> inventoryIdsBySign = Map.of();
+    private volatile long horizon;
+    private volatile boolean ready;
+
+    public SignNumberIndex(InventoryItemRepository inventoryItemRepository, InventoryRepository inventoryRepository,
+                           @Value("${inventory-service.sign-number-index.change-retention:1h}") Duration changeRetention) {
+        this.inventoryItemRepository = inventoryItemRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.changeRetention = changeRetention;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.nanoTime();
+        // taken before the items are streamed, so the first refresh re-reads whatever commits during the load
+        inventoryItemRepository.findChangeHorizon()
+                .doOnNext(current -> horizon = current)
+                .then(reloadInventories())
+                .thenMany(inventoryItemRepository.findAllPlaced())
+                .buffer(LOAD_BATCH_SIZE)
+                .doOnNext(this::loadBatch)
+                .then()
+                .subscribe(unused -> {
+                }, throwable -> log.error("Failed to load the sign number index, searches keep using the database", throwable), () -> {
+                    ready = true;
+                    writtenWhileLoading.clear();
+                    log.info("Loaded {} inventory items into the sign number index in {} ms",
+                            size(), (System.nanoTime() - started) / 1_000_000);
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${inventory-service.sign-number-index.refresh-interval-ms:5000}")
+    public void scheduledRefresh() {
+        if (!ready || !refreshing.compareAndSet(false, true))
+            return;
+        refresh()
+                .doFinally(signal -> refreshing.set(false))
+                .subscribe(applied -> {
+                    if (applied > 0)
+                        log.debug("Applied {} inventory item changes to the sign number index", applied);
+                }, throwable -> log.error("Failed to refresh the sign number index: {}", throwable.getMessage()));
+    }
+
+    @Scheduled(cron = "${inventory-service.sign-number-index.change-purge-cron:0 15 * * * *}")
+    public void purgeChanges() {
+        inventoryItemRepository.deleteChangesOlderThan(changeRetention.toSeconds())
+                .subscribe(deleted -> log.debug("Purged {} inventory item changes", deleted),
+                        throwable -> log.error("Failed to purge inventory item changes: {}", throwable.getMessage()));
+    }
+
+    /**
+     * Applies the item changes committed since the previous refresh, by this or any other instance, and re-reads the
+     * inventories. Returns the number of (inventory, number) pairs re-read.
+     */
+    Mono<Integer> refresh() {
+        return inventoryItemRepository.findChangeHorizon()
+                .flatMap(next -> reloadInventories()
+                        .thenMany(inventoryItemRepository.findChangedSince(horizon))
+                        .collectList()
+                        .map(changed -> {
+                            long stamp = lock.writeLock();
+                            try {
+                                changed.forEach(this::apply);
+                            } finally {
+                                lock.unlockWrite(stamp);
+                            }
+                            horizon = next;
+                            return changed.size();
+                        }));
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return table.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the placed items with the sign and number ordered by id, or empty while the index is still loading.
+     */
+    public Optional<List<InventoryItemDto>> find(String inventorySign, int inventoryNumber) {
+        if (!ready)
+            return Optional.empty();
+        int[] inventoryIds = inventoryIdsBySign.getOrDefault(inventorySign, NO_INVENTORIES);
+        long[] found = new long[inventoryIds.length];
+        long stamp = lock.tryOptimisticRead();
+        lookup(inventoryIds, inventoryNumber, found);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                lookup(inventoryIds, inventoryNumber, found);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        Map<Integer, String> names = inventoryNames;
+        List<InventoryItemDto> items = new ArrayList<>(found.length);
+        for (int i = 0; i < inventoryIds.length; i++) {
+            if (found[i] == ItemSlotTable.NOT_FOUND)
+                continue;
+            items.add(InventoryItemDto.builder()
+                    .id(ItemSlotTable.itemId(found[i]))
+                    .inventoryId(inventoryIds[i])
+                    .inventoryNumber(inventoryNumber)
+                    .roomId(ItemSlotTable.roomId(found[i]))
+                    .inventoryName(names.get(inventoryIds[i]))
+                    .build());
+        }
+        items.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+        return Optional.of(items);
+    }
+
+    /**
+     * Records the current state of a saved item; an item without a room is dropped from the index.
+     */
+    public void put(InventoryItem item) {
+        putAll(List.of(item));
+    }
+
+    public void putAll(Collection<InventoryItem> items) {
+        if (items.isEmpty())
+            return;
+        Map<Integer, String> names = inventoryNames;
+        boolean unknownInventory = false;
+        long stamp = lock.writeLock();
+        try {
+            for (InventoryItem item : items) {
+                apply(item);
+                unknownInventory |= !names.containsKey(item.getInventoryId());
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        // an inventory saved in a transaction may have been reloaded before its commit
+        if (unknownInventory && ready)
+            inventoriesChanged();
+    }
+
+    public void remove(Integer inventoryId, Integer inventoryNumber) {
+        long key = ItemSlotTable.key(inventoryId, inventoryNumber);
+        long stamp = lock.writeLock();
+        try {
+            table.remove(key);
+            if (!ready)
+                writtenWhileLoading.add(key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Re-reads the inventories after one was added, renamed or deleted. The map is small, so it is simply swapped.
+     */
+    public void inventoriesChanged() {
+        reloadInventories().subscribe(unused -> {
+        }, throwable -> log.error("Failed to reload inventories for the sign number index", throwable));
+    }
+
+    private Mono<Void> reloadInventories() {
+        return inventoryRepository.findAll()
+                .collectList()
+                .doOnNext(inventories -> {
+                    Map<Integer, String> names = new HashMap<>();
+                    Map<String, List<Integer>> idsBySign = new HashMap<>();
+                    for (Inventory inventory : inventories) {
+                        names.put(inventory.getId(), inventory.getName());
+                        idsBySign.computeIfAbsent(inventory.getInventorySign(), sign -> new ArrayList<>()).add(inventory.getId());
+                    }
+                    Map<String, int[]> bySign = new HashMap<>();
+                    idsBySign.forEach((sign, ids) -> bySign.put(sign, ids.stream().mapToInt(Integer::intValue).toArray()));
+                    inventoryNames = names;
+                    inventoryIdsBySign = bySign;
+                })
+                .then();
+    }
+
+    private void loadBatch(List<InventoryItem> items) {
+        long stamp = lock.writeLock();
+        try {
+            for (InventoryItem item : items) {
+                long key = ItemSlotTable.key(item.getInventoryId(), item.getInventoryNumber());
+                if (!writtenWhileLoading.contains(key))
+                    table.put(key, item.getId(), item.getRoomId());
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void apply(InventoryItem item) {
+        long key = ItemSlotTable.key(item.getInventoryId(), item.getInventoryNumber());
+        // a deleted item comes back from the change log without an id
+        if (item.getId() == null || item.getRoomId() == null)
+            table.remove(key);
+        else
+            table.put(key, item.getId(), item.getRoomId());
+        if (!ready)
+            writtenWhileLoading.add(key);
+    }
+
+    private void lookup(int[] inventoryIds, int inventoryNumber, long[] found) {
+        for (int i = 0; i < inventoryIds.length; i++)
+            found[i] = table.get(ItemSlotTable.key(inventoryIds[i], inventoryNumber));
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.inventoryservice.inventoryitem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of the import response stream: a rejected CSV line, progress after a chunk, or the final summary.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class ImportEventDto {
+
+    public static final String REJECT = "reject";
+    public static final String PROGRESS = "progress";
+    public static final String DONE = "done";
+
+    private String type;
+    private Long line;
+    private String message;
+    private long read;
+    private long loaded;
+    private long rejected;
+
+    public static ImportEventDto reject(long line, String message) {
+        return ImportEventDto.builder().type(REJECT).line(line).message(message).build();
+    }
+}
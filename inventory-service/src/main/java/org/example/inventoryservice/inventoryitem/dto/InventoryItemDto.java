@@ -12,7 +12,7 @@ import lombok.NoArgsConstructor;
 public class InventoryItemDto {
     private Integer id; //res
     private Integer inventoryId; //res
-    private Integer inventoryNumber; //req & res
+    private Integer inventoryNumber; //req & res, allocated when missing
     private Integer roomId;// req & res
     private Integer buildingId;// req & res
     private String inventoryName;
@@ -0,0 +1,22 @@
+package org.example.inventoryservice.inventoryitem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Consecutive inventory numbers of one inventory that are in the same room and building. Range-stored numbers
+ * form runs without a room.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class InventoryNumberRunDto {
+    private Integer inventoryId;
+    private Integer startNumber;
+    private Integer endNumber;
+    private Integer roomId;
+    private Integer buildingId;
+}
@@ -0,0 +1,24 @@
+package org.example.inventoryservice.inventoryitem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Items to move into a room, given either as {@code itemIds} or as an inventory with a number range.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class RelocateRequestDto {
+    private Integer roomId;
+    private Integer buildingId;
+    private List<Integer> itemIds;
+    private Integer inventoryId;
+    private Integer startNumber;
+    private Integer endNumber;
+}
@@ -0,0 +1,17 @@
+package org.example.inventoryservice.inventoryitem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class RelocateResultDto {
+    private Integer roomId;
+    private Integer buildingId;
+    private long moved;
+    private long missing;
+}
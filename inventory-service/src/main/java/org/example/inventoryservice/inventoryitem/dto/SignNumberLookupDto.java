@@ -0,0 +1,28 @@
+package org.example.inventoryservice.inventoryitem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The result for one tag of a batch lookup: the items with the sign-number, none if it is not found, or an error
+ * message if the tag is not a sign-number.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class SignNumberLookupDto {
+
+    public static final String FOUND = "found";
+    public static final String NOT_FOUND = "not-found";
+    public static final String INVALID = "invalid";
+
+    private String signNumber;
+    private String status;
+    private String message;
+    private List<InventoryItemWithRoomInfoDto> items;
+}
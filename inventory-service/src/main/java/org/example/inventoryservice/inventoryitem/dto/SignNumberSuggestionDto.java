@@ -0,0 +1,18 @@
+package org.example.inventoryservice.inventoryitem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class SignNumberSuggestionDto {
+    private Integer id;
+    private String signNumber;
+    private Integer inventoryId;
+    private Integer inventoryNumber;
+    private String inventoryName;
+}
@@ -0,0 +1,20 @@
+package org.example.inventoryservice.inventoryitem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class TransferResultDto {
+    private Integer fromBuildingId;
+    private Integer toBuildingId;
+    private String description;
+    private List<TransferInventoryDto> inventories;
+    private List<Integer> itemIds;
+}
@@ -0,0 +1,92 @@
+package org.example.inventoryservice.payload;
+
+import org.example.inventoryservice.exception.CustomBadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor handed to clients as the {@code after} parameter.
+ * Clients must treat the value as a token; only this class knows its layout.
+ */
+public final class Cursor {
+
+    private Cursor() {
+    }
+
+    public static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String decode(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new CustomBadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public static String encodeId(Integer id) {
+        return encode(String.valueOf(id));
+    }
+
+    /**
+     * Returns the id encoded in the cursor, or 0 for an empty cursor so the first page starts before every id.
+     */
+    public static int decodeId(String cursor) {
+        if (cursor == null || cursor.isBlank())
+            return 0;
+        try {
+            return Integer.parseInt(decode(cursor));
+        } catch (NumberFormatException e) {
+            throw new CustomBadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public static String encodeRanked(float rank, Integer id) {
+        return encode(rank + ":" + id);
+    }
+
+    /**
+     * Returns the rank and id encoded in the cursor. An empty cursor starts above every rank, so the first page
+     * begins with the best match.
+     */
+    public static Ranked decodeRanked(String cursor) {
+        if (cursor == null || cursor.isBlank())
+            return new Ranked(Float.POSITIVE_INFINITY, 0);
+        String value = decode(cursor);
+        int separator = value.lastIndexOf(':');
+        try {
+            return new Ranked(Float.parseFloat(value.substring(0, separator)), Integer.parseInt(value.substring(separator + 1)));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new CustomBadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public record Ranked(float rank, int id) {
+    }
+
+    public static String encodeNumbered(Integer inventoryId, Integer inventoryNumber) {
+        return encode(inventoryId + ":" + inventoryNumber);
+    }
+
+    /**
+     * Returns the inventory id and number encoded in the cursor, or zeros for an empty cursor so the first page
+     * starts before every inventory.
+     */
+    public static Numbered decodeNumbered(String cursor) {
+        if (cursor == null || cursor.isBlank())
+            return new Numbered(0, 0);
+        String value = decode(cursor);
+        int separator = value.indexOf(':');
+        try {
+            return new Numbered(Integer.parseInt(value.substring(0, separator)), Integer.parseInt(value.substring(separator + 1)));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new CustomBadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public record Numbered(int inventoryId, int inventoryNumber) {
+    }
+}
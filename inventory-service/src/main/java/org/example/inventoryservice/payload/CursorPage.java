@@ -0,0 +1,33 @@
+package org.example.inventoryservice.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class CursorPage<T> {
+    private List<T> content;
+    private String next;
+
+    /**
+     * A full page means there may be more rows, so the last id becomes the next cursor.
+     */
+    public static <T> CursorPage<T> of(List<T> content, int size, Function<T, Integer> idExtractor) {
+        return withCursor(content, size, last -> Cursor.encodeId(idExtractor.apply(last)));
+    }
+
+    /**
+     * Same as {@link #of} for pages ordered by more than the id, where the cursor has to carry the whole sort key.
+     */
+    public static <T> CursorPage<T> withCursor(List<T> content, int size, Function<T, String> cursorExtractor) {
+        String next = content.size() == size
+                ? cursorExtractor.apply(content.get(content.size() - 1))
+                : null;
+        return new CursorPage<>(content, next);
+    }
+}
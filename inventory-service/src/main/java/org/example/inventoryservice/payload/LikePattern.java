@@ -0,0 +1,30 @@
+package org.example.inventoryservice.payload;
+
+/**
+ * Builds LIKE patterns from user input, escaping the wildcards so they match literally.
+ */
+public final class LikePattern {
+
+    private LikePattern() {
+    }
+
+    /**
+     * Returns a pattern matching values that start with {@code prefix}.
+     */
+    public static String startsWith(String prefix) {
+        return escape(prefix) + "%";
+    }
+
+    /**
+     * Returns a pattern matching {@code value} only.
+     */
+    public static String exactly(String value) {
+        return escape(value);
+    }
+
+    static String escape(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.inventoryservice.stocktake;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.inventoryservice.payload.ApiResponse;
+import org.example.inventoryservice.stocktake.dto.StocktakeOpenDto;
+import org.example.inventoryservice.stocktake.dto.StocktakeReportDto;
+import org.example.inventoryservice.stocktake.dto.StocktakeSessionDto;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/stocktakes")
+@RequiredArgsConstructor
+public class StocktakeController {
+
+    private final StocktakeService stocktakeService;
+
+    @PostMapping
+    public Mono<ResponseEntity<ApiResponse>> openStocktake(@RequestBody StocktakeOpenDto stocktakeOpenDto) {
+        log.info("opening stocktake {}", stocktakeOpenDto);
+        return stocktakeService.open(stocktakeOpenDto)
+                .map(session ->
+                        new ResponseEntity<>(
+                                new ApiResponse(
+                                        true,
+                                        "Successfully opened!!",
+                                        session),
+                                HttpStatus.CREATED));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<StocktakeSessionDto> getStocktake(@PathVariable UUID id) {
+        return stocktakeService.getSession(id);
+    }
+
+    @PostMapping("/{id}/scans")
+    public Mono<StocktakeSessionDto> scan(@PathVariable UUID id, @RequestBody List<String> signNumbers) {
+        return stocktakeService.scan(id, signNumbers);
+    }
+
+    @PostMapping("/{id}/close")
+    public Mono<StocktakeReportDto> closeStocktake(@PathVariable UUID id) {
+        log.info("closing stocktake {}", id);
+        return stocktakeService.close(id);
+    }
+}
@@ -0,0 +1,184 @@
+package org.example.inventoryservice.stocktake;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.example.inventoryservice.exception.CustomBadRequestException;
+import org.example.inventoryservice.exception.ResourceNotFoundException;
+import org.example.inventoryservice.inventory.Inventory;
+import org.example.inventoryservice.inventory.InventoryRepository;
+import org.example.inventoryservice.inventoryitem.InventoryItem;
+import org.example.inventoryservice.inventoryitem.InventoryItemRange;
+import org.example.inventoryservice.inventoryitem.InventoryItemRangeRepository;
+import org.example.inventoryservice.inventoryitem.InventoryItemRepository;
+import org.example.inventoryservice.inventoryitem.SignNumber;
+import org.example.inventoryservice.inventoryitem.dto.SignNumberItemDto;
+import org.example.inventoryservice.stocktake.dto.StocktakeOpenDto;
+import org.example.inventoryservice.stocktake.dto.StocktakeReportDto;
+import org.example.inventoryservice.stocktake.dto.StocktakeSessionDto;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Stocktake sessions: the expected items of a room or building are loaded from inventory_item once when the session
+ * opens, scans only touch the in-memory bitsets, and closing reconciles them with a single lookup for the tags that
+ * did not belong. Sessions live in memory and expire when left idle.
+ * <p>
+ * A session exists only on the instance that opened it, so the scans and the close of a session have to be routed to
+ * that instance (sticky routing on the session id); any other instance answers them with not found. A session is
+ * dropped only once its report is built, so a close that fails can simply be retried.
+ */
+@Service
+@Slf4j
+public class StocktakeService {
+
+    static final int LOOKUP_BATCH_SIZE = 10_000;
+
+    private final InventoryItemRepository inventoryItemRepository;
+    private final InventoryRepository inventoryRepository;
+    private final InventoryItemRangeRepository inventoryItemRangeRepository;
+    private final Cache<UUID, StocktakeSession> sessions;
+
+    public StocktakeService(InventoryItemRepository inventoryItemRepository,
+                            InventoryRepository inventoryRepository,
+                            InventoryItemRangeRepository inventoryItemRangeRepository,
+                            @Value("${inventory-service.stocktake.max-sessions:100}") long maxSessions,
+                            @Value("${inventory-service.stocktake.session-timeout:12h}") Duration sessionTimeout) {
+        this.inventoryItemRepository = inventoryItemRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryItemRangeRepository = inventoryItemRangeRepository;
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maxSessions)
+                .expireAfterAccess(sessionTimeout)
+                .build();
+    }
+
+    public Mono<StocktakeSessionDto> open(StocktakeOpenDto stocktakeOpenDto) {
+        Integer roomId = stocktakeOpenDto.getRoomId();
+        Integer buildingId = stocktakeOpenDto.getBuildingId();
+        if ((roomId == null) == (buildingId == null))
+            return Mono.error(() -> new CustomBadRequestException("You should input either room id or building id"));
+        Flux<InventoryItem> items = roomId != null
+                ? inventoryItemRepository.findAllByRoomId(roomId)
+                : inventoryItemRepository.findAllByBuildingId(buildingId);
+        // range-stored items have no room, so only a building scope can contain them
+        Flux<InventoryItemRange> ranges = roomId != null
+                ? Flux.empty()
+                : inventoryItemRangeRepository.findAllByBuildingId(buildingId);
+        return inventoryRepository.findAll()
+                .collectMap(Inventory::getId, Inventory::getInventorySign)
+                .flatMap(signs -> items
+                        .collect(HashMap<Integer, RoaringBitmap>::new, (expected, item) ->
+                                expected.computeIfAbsent(item.getInventoryId(), inventoryId -> new RoaringBitmap())
+                                        .add(item.getInventoryNumber().intValue()))
+                        .flatMap(expected -> ranges
+                                .doOnNext(range -> expected.computeIfAbsent(range.getInventoryId(), inventoryId -> new RoaringBitmap())
+                                        .add((long) range.getStartNumber(), (long) range.getEndNumber() + 1))
+                                .then(Mono.just(expected)))
+                        .map(expected -> new StocktakeSession(UUID.randomUUID(), roomId, buildingId, expected, signs)))
+                .doOnNext(session -> {
+                    sessions.put(session.getId(), session);
+                    log.info("Opened stocktake {} for room {} building {} expecting {} items",
+                            session.getId(), roomId, buildingId, session.getExpected());
+                })
+                .map(session -> toDto(session, session.progress()));
+    }
+
+    /**
+     * Records a batch of scanned sign-numbers. Scanning a tag twice counts it once; tags that are not sign-numbers
+     * and missing tags are counted as invalid.
+     */
+    public Mono<StocktakeSessionDto> scan(UUID id, List<String> signNumbers) {
+        if (signNumbers == null)
+            return Mono.error(() -> new CustomBadRequestException("You should input the scanned sign-numbers"));
+        return session(id).map(session -> {
+            List<SignNumber> tags = new ArrayList<>(signNumbers.size());
+            int invalid = 0;
+            for (String signNumber : signNumbers) {
+                if (signNumber == null) {
+                    invalid++;
+                    continue;
+                }
+                try {
+                    tags.add(SignNumber.parse(signNumber));
+                } catch (CustomBadRequestException e) {
+                    invalid++;
+                }
+            }
+            session.scan(tags, invalid);
+            return toDto(session, session.progress());
+        });
+    }
+
+    public Mono<StocktakeSessionDto> getSession(UUID id) {
+        return session(id).map(session -> toDto(session, session.progress()));
+    }
+
+    /**
+     * Ends the session and reports missing, misplaced and unexpected items. Only tags the scope did not expect are
+     * looked up in the database.
+     */
+    public Mono<StocktakeReportDto> close(UUID id) {
+        return session(id)
+                .flatMap(session -> {
+                    StocktakeSession.Reconciliation reconciliation = session.reconcile();
+                    return Flux.fromIterable(reconciliation.unaccounted())
+                            .buffer(LOOKUP_BATCH_SIZE)
+                            .concatMap(tags -> inventoryItemRepository.findAllBySignNumbers(
+                                    tags.stream().map(SignNumber::inventorySign).toArray(String[]::new),
+                                    tags.stream().map(SignNumber::inventoryNumber).toArray(Integer[]::new)))
+                            .collectList()
+                            .map(misplaced -> {
+                                Set<String> located = new HashSet<>();
+                                misplaced.forEach(item -> located.add(item.getSignNumber()));
+                                List<String> unexpected = reconciliation.unaccounted().stream()
+                                        .map(tag -> tag.inventorySign() + tag.inventoryNumber())
+                                        .filter(tag -> !located.contains(tag))
+                                        .toList();
+                                log.info("Closed stocktake {}: {} missing, {} misplaced, {} unexpected",
+                                        id, reconciliation.missing().size(), misplaced.size(), unexpected.size());
+                                return StocktakeReportDto.builder()
+                                        .session(toDto(session, reconciliation.progress()))
+                                        .missing(reconciliation.missing())
+                                        .misplaced(misplaced)
+                                        .unexpected(unexpected)
+                                        .build();
+                            });
+                })
+                .doOnNext(report -> sessions.invalidate(id));
+    }
+
+    private Mono<StocktakeSession> session(UUID id) {
+        return Mono.defer(() -> {
+            StocktakeSession session = sessions.getIfPresent(id);
+            if (session == null)
+                return Mono.error(new ResourceNotFoundException("Stocktake session " + id + " not found!"));
+            return Mono.just(session);
+        });
+    }
+
+    private static StocktakeSessionDto toDto(StocktakeSession session, StocktakeSession.Progress progress) {
+        return StocktakeSessionDto.builder()
+                .id(session.getId())
+                .roomId(session.getRoomId())
+                .buildingId(session.getBuildingId())
+                .openedAt(session.getOpenedAt())
+                .expected(session.getExpected())
+                .scanned(progress.scanned())
+                .found(progress.found())
+                .invalid(progress.invalid())
+                .build();
+    }
+}
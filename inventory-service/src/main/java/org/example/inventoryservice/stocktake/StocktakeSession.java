@@ -0,0 +1,111 @@
+package org.example.inventoryservice.stocktake;
+
+import org.example.inventoryservice.inventoryitem.SignNumber;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * One open stocktake. What the database expects in the scope is held as a compressed bitset of inventory numbers
+ * per inventory, what was scanned as a bitset per inventory sign, since a tag only tells the sign. Reconciling is
+ * then a handful of bitset operations per inventory. All methods are synchronized, as scans of one session may
+ * arrive in parallel.
+ */
+final class StocktakeSession {
+
+    private static final RoaringBitmap NONE = new RoaringBitmap();
+
+    private final UUID id;
+    private final Integer roomId;
+    private final Integer buildingId;
+    private final Instant openedAt = Instant.now();
+    private final Map<Integer, RoaringBitmap> expectedByInventory;
+    private final Map<Integer, String> signByInventory;
+    private final Map<String, RoaringBitmap> expectedBySign = new HashMap<>();
+    private final Map<String, RoaringBitmap> scannedBySign = new HashMap<>();
+    private final int expected;
+    private long invalid;
+
+    StocktakeSession(UUID id, Integer roomId, Integer buildingId,
+                     Map<Integer, RoaringBitmap> expectedByInventory, Map<Integer, String> signByInventory) {
+        this.id = id;
+        this.roomId = roomId;
+        this.buildingId = buildingId;
+        this.expectedByInventory = new TreeMap<>(expectedByInventory);
+        this.signByInventory = signByInventory;
+        int count = 0;
+        for (Map.Entry<Integer, RoaringBitmap> entry : this.expectedByInventory.entrySet()) {
+            entry.getValue().runOptimize();
+            count += entry.getValue().getCardinality();
+            expectedBySign.computeIfAbsent(signByInventory.get(entry.getKey()), sign -> new RoaringBitmap())
+                    .or(entry.getValue());
+        }
+        this.expected = count;
+    }
+
+    UUID getId() {
+        return id;
+    }
+
+    Integer getRoomId() {
+        return roomId;
+    }
+
+    Integer getBuildingId() {
+        return buildingId;
+    }
+
+    Instant getOpenedAt() {
+        return openedAt;
+    }
+
+    int getExpected() {
+        return expected;
+    }
+
+    synchronized void scan(List<SignNumber> tags, int invalidTags) {
+        for (SignNumber tag : tags)
+            scannedBySign.computeIfAbsent(tag.inventorySign(), sign -> new RoaringBitmap()).add(tag.inventoryNumber());
+        invalid += invalidTags;
+    }
+
+    synchronized Progress progress() {
+        long scanned = 0;
+        long found = 0;
+        for (Map.Entry<String, RoaringBitmap> entry : scannedBySign.entrySet()) {
+            scanned += entry.getValue().getLongCardinality();
+            found += RoaringBitmap.andCardinality(entry.getValue(), expectedBySign.getOrDefault(entry.getKey(), NONE));
+        }
+        return new Progress(scanned, found, invalid);
+    }
+
+    /**
+     * Splits the session into expected items nobody scanned and scanned tags the scope does not expect; the latter
+     * are either items of other rooms or tags unknown altogether, which only the database can tell apart.
+     */
+    synchronized Reconciliation reconcile() {
+        List<String> missing = new ArrayList<>();
+        for (Map.Entry<Integer, RoaringBitmap> entry : expectedByInventory.entrySet()) {
+            String sign = signByInventory.get(entry.getKey());
+            RoaringBitmap.andNot(entry.getValue(), scannedBySign.getOrDefault(sign, NONE))
+                    .forEach((int number) -> missing.add(sign + number));
+        }
+        List<SignNumber> unaccounted = new ArrayList<>();
+        new TreeMap<>(scannedBySign).forEach((sign, scanned) ->
+                RoaringBitmap.andNot(scanned, expectedBySign.getOrDefault(sign, NONE))
+                        .forEach((int number) -> unaccounted.add(new SignNumber(sign, number))));
+        return new Reconciliation(progress(), missing, unaccounted);
+    }
+
+    record Progress(long scanned, long found, long invalid) {
+    }
+
+    record Reconciliation(Progress progress, List<String> missing, List<SignNumber> unaccounted) {
+    }
+}
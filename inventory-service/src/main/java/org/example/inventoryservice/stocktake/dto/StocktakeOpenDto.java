@@ -0,0 +1,18 @@
+package org.example.inventoryservice.stocktake.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The scope of a stocktake: either a room or a whole building.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class StocktakeOpenDto {
+    private Integer roomId;
+    private Integer buildingId;
+}
@@ -0,0 +1,24 @@
+package org.example.inventoryservice.stocktake.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.inventoryservice.inventoryitem.dto.SignNumberItemDto;
+
+import java.util.List;
+
+/**
+ * Outcome of a closed stocktake. Missing items are expected but were not scanned, misplaced items were scanned
+ * but belong to another room or building, and unexpected tags match no item at all.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class StocktakeReportDto {
+    private StocktakeSessionDto session;
+    private List<String> missing;
+    private List<SignNumberItemDto> misplaced;
+    private List<String> unexpected;
+}
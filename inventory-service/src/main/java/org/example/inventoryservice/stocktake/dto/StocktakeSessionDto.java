@@ -0,0 +1,24 @@
+package org.example.inventoryservice.stocktake.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class StocktakeSessionDto {
+    private UUID id;
+    private Integer roomId;
+    private Integer buildingId;
+    private Instant openedAt;
+    private int expected;
+    private long scanned;
+    private long found;
+    private long invalid;
+}
@@ -0,0 +1,70 @@
+package org.example.inventoryservice.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.example.inventoryservice.client.BuildingServiceClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RoomInfoCacheTest {
+
+    private MockWebServer mockBackEnd;
+    private RoomInfoCache roomInfoCache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockBackEnd = new MockWebServer();
+        mockBackEnd.start();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BuildingServiceClient buildingServiceClient = new BuildingServiceClient(WebClient.builder(), meterRegistry,
+                mockBackEnd.url("/").toString(), 10, Duration.ofSeconds(1), Duration.ofSeconds(30),
+                Duration.ofSeconds(1), Duration.ofSeconds(1), 2, false);
+        roomInfoCache = new RoomInfoCache(buildingServiceClient, meterRegistry, 100,
+                Duration.ofMinutes(10), Duration.ofMinutes(1), Duration.ofSeconds(30));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockBackEnd.shutdown();
+    }
+
+    @Test
+    void getAllShouldLoadMissesInOneBatchAndServeRepeatsFromCache() throws InterruptedException {
+        mockBackEnd.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody("[{\"id\":1,\"name\":\"Room 1\",\"buildingId\":1,\"buildingName\":\"Building 1\"}]"));
+
+        StepVerifier.create(roomInfoCache.getAll(List.of(1, 2)))
+                .assertNext(rooms -> {
+                    assertEquals(1, rooms.size());
+                    assertEquals("Room 1", rooms.get(1).getName());
+                })
+                .verifyComplete();
+        // room 2 is cached as missing, so nothing is requested again
+        StepVerifier.create(roomInfoCache.getAll(List.of(1, 2)))
+                .assertNext(rooms -> assertEquals(1, rooms.size()))
+                .verifyComplete();
+
+        assertEquals(1, mockBackEnd.getRequestCount());
+        assertEquals("/api/v1/rooms/batch", mockBackEnd.takeRequest().getPath());
+    }
+
+    @Test
+    void getAllShouldFailWhenBuildingServiceFails() {
+        mockBackEnd.enqueue(new MockResponse().setResponseCode(500));
+
+        StepVerifier.create(roomInfoCache.getAll(List.of(1)))
+                .expectError()
+                .verify();
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.inventoryservice.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BuildingServiceClientTest {
+
+    private MockWebServer mockBackEnd;
+    private SimpleMeterRegistry meterRegistry;
+    private BuildingServiceClient buildingServiceClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockBackEnd = new MockWebServer();
+        mockBackEnd.start();
+        meterRegistry = new SimpleMeterRegistry();
+        buildingServiceClient = new BuildingServiceClient(WebClient.builder(), meterRegistry,
+                mockBackEnd.url("/").toString(), 10, Duration.ofSeconds(1), Duration.ofSeconds(30),
+                Duration.ofSeconds(1), Duration.ofMillis(500), 2, false);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        buildingServiceClient.destroy();
+        mockBackEnd.shutdown();
+    }
+
+    @Test
+    void getRoomByIdShouldBeEmptyForUnknownRoom() {
+        mockBackEnd.enqueue(new MockResponse().setResponseCode(404));
+
+        StepVerifier.create(buildingServiceClient.getRoomById(1))
+                .verifyComplete();
+        assertEquals(1, meterRegistry.get("building.client.requests").tag("operation", "getRoomById").timer().count());
+    }
+
+    @Test
+    void getRoomsByIdsShouldSplitIntoAcceptedBatches() {
+        for (int i = 0; i < 2; i++)
+            mockBackEnd.enqueue(new MockResponse()
+                    .setHeader("Content-Type", "application/json")
+                    .setBody("[{\"id\":" + (i + 1) + ",\"name\":\"Room\"}]"));
+        List<Integer> ids = IntStream.rangeClosed(1, BuildingServiceClient.MAX_BATCH_SIZE + 1).boxed().toList();
+
+        StepVerifier.create(buildingServiceClient.getRoomsByIds(ids))
+                .expectNextCount(2)
+                .verifyComplete();
+        assertEquals(2, mockBackEnd.getRequestCount());
+    }
+
+    @Test
+    void getRoomByIdShouldTimeOut() {
+        mockBackEnd.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+
+        StepVerifier.create(buildingServiceClient.getRoomById(1))
+                .expectError()
+                .verify(Duration.ofSeconds(5));
+    }
+}
@@ -3,8 +3,14 @@ package org.example.inventoryservice.inventory;
 import org.example.inventoryservice.exception.CustomBadRequestException;
 import org.example.inventoryservice.exception.ResourceNotFoundException;
 import org.example.inventoryservice.exception.UniqueKeyException;
+import org.example.inventoryservice.inventory.dto.InventoriesByRoomResponseDto;
 import org.example.inventoryservice.inventory.dto.InventoryDto;
+import org.example.inventoryservice.inventory.dto.InventorySearchResultDto;
+import org.example.inventoryservice.inventoryitem.InventoryItemRange;
+import org.example.inventoryservice.inventoryitem.InventoryItemRangeService;
 import org.example.inventoryservice.inventoryitem.InventoryItemRepository;
+import org.example.inventoryservice.inventoryitem.SignNumberIndex;
+import org.example.inventoryservice.payload.Cursor;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -23,6 +29,10 @@ class InventoryServiceTest {
     private InventoryRepository inventoryRepository;
     @Mock
     private InventoryItemRepository inventoryItemRepository;
+    @Mock
+    private SignNumberIndex signNumberIndex;
+    @Mock
+    private InventoryItemRangeService inventoryItemRangeService;
 
     @InjectMocks
     private InventoryService inventoryService;
@@ -33,7 +43,7 @@ class InventoryServiceTest {
         Flux<Inventory> allInventories = Flux.just(
                 Inventory.builder().id(1).name("inventory1").description("description1").inventorySign("sign1").build(),
                 Inventory.builder().id(2).name("inventory2").description("description2").inventorySign("sign2").build());
-        when(inventoryRepository.findAll()).thenReturn(allInventories);
+        when(inventoryRepository.findPage(0L, 2)).thenReturn(allInventories);
 
         Flux<Inventory> result = inventoryService.getAllInventories(0, 2);
 
@@ -53,6 +63,43 @@ class InventoryServiceTest {
                 .verify();
     }
 
+    @Test
+    void getInventoriesByRoomIdAfterShouldReturnNextCursorWhenPageIsFull() {
+        when(inventoryRepository.getInventoriesByRoomIdAfter(7, 0, 2)).thenReturn(Flux.just(
+                new InventoriesByRoomResponseDto(1, "inventory1", "A", 4),
+                new InventoriesByRoomResponseDto(3, "inventory3", "B", 5)));
+
+        StepVerifier.create(inventoryService.getInventoriesByRoomIdAfter(7, null, 2))
+                .expectNextMatches(page -> page.getContent().size() == 2 && Cursor.encodeId(3).equals(page.getNext()))
+                .verifyComplete();
+    }
+
+    @Test
+    void searchInventoriesShouldContinueAfterRankAndId() {
+        String after = Cursor.encodeRanked(0.5f, 4);
+        when(inventoryRepository.search("dell monitor", 0.5f, 4, 1)).thenReturn(Flux.just(
+                InventorySearchResultDto.builder().id(2).name("Dell monitors").itemCount(12L).rank(0.25f).build()));
+
+        StepVerifier.create(inventoryService.searchInventories(" dell monitor ", after, 1))
+                .expectNextMatches(page -> page.getContent().get(0).getItemCount() == 12L
+                        && Cursor.encodeRanked(0.25f, 2).equals(page.getNext()))
+                .verifyComplete();
+    }
+
+    @Test
+    void searchInventoriesWithBlankQueryShouldReturnError() {
+        StepVerifier.create(inventoryService.searchInventories(" ", null, 10))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+    }
+
+    @Test
+    void searchInventoriesWithTooLargeSizeShouldReturnError() {
+        StepVerifier.create(inventoryService.searchInventories("dell", null, 1001))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+    }
+
     @Test
     void getInventoryByIdAndShouldReturnInventory() {
         Mono<Inventory> inventoryMono = Mono.just(Inventory.builder().id(1).name("inventory1").description("description1").inventorySign("sign1").build());
@@ -98,6 +145,62 @@ class InventoryServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void addInventoryWithQuantityShouldInsertRangeInChunks() {
+        InventoryDto inventoryDto = InventoryDto.builder()
+                .name("Test Inventory")
+                .inventorySign("A")
+                .quantity(150_000)
+                .buildingId(3)
+                .build();
+        Inventory inventory = Inventory.builder().id(1).name("Test Inventory").inventorySign("A").build();
+        when(inventoryRepository.save(any(Inventory.class))).thenReturn(Mono.just(inventory));
+        when(inventoryItemRepository.insertRange(1, 3, 1, 100_000)).thenReturn(Mono.just(100_000));
+        when(inventoryItemRepository.insertRange(1, 3, 100_001, 150_000)).thenReturn(Mono.just(50_000));
+
+        StepVerifier.create(inventoryService.addInventory(inventoryDto))
+                .expectNext(inventory)
+                .verifyComplete();
+        verify(inventoryItemRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void addInventoryWithRangeStorageShouldStoreOneRange() {
+        InventoryDto inventoryDto = InventoryDto.builder()
+                .name("Test Inventory")
+                .inventorySign("A")
+                .quantity(50_000)
+                .buildingId(3)
+                .build();
+        Inventory inventory = Inventory.builder().id(1).name("Test Inventory").inventorySign("A").build();
+        when(inventoryRepository.save(any(Inventory.class))).thenReturn(Mono.just(inventory));
+        when(inventoryItemRangeService.isEnabled()).thenReturn(true);
+        when(inventoryItemRangeService.store(1, 3, 1, 50_000)).thenReturn(Mono.just(new InventoryItemRange(1, 1, 3, 1, 50_000)));
+
+        StepVerifier.create(inventoryService.addInventory(inventoryDto))
+                .expectNext(inventory)
+                .verifyComplete();
+        verify(inventoryItemRepository, never()).insertRange(anyInt(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void addInventoryWithRangeAndExistingNumbersShouldReturnError() {
+        InventoryDto inventoryDto = InventoryDto.builder()
+                .name("Test Inventory")
+                .inventorySign("A")
+                .startNumberOfInventoryItem(10)
+                .endNumberOfInventoryItem(19)
+                .buildingId(3)
+                .build();
+        Inventory inventory = Inventory.builder().id(1).name("Test Inventory").inventorySign("A").build();
+        when(inventoryRepository.save(any(Inventory.class))).thenReturn(Mono.just(inventory));
+        when(inventoryItemRepository.insertRange(1, 3, 10, 19)).thenReturn(Mono.just(8));
+
+        StepVerifier.create(inventoryService.addInventory(inventoryDto))
+                .expectError(UniqueKeyException.class)
+                .verify();
+    }
+
     @Test
     void addInventoryFailure() {
         InventoryDto inventoryDto = InventoryDto.builder()
@@ -0,0 +1,57 @@
+package org.example.inventoryservice.inventory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.inventoryservice.inventory.dto.RoomInventoryCountDriftDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RoomInventoryCountCheckerTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void checkShouldReportDriftWithoutRepairing() {
+        RoomInventoryCountChecker checker = new RoomInventoryCountChecker(inventoryRepository, transactionalOperator, meterRegistry, false);
+        when(inventoryRepository.findRoomInventoryCountDrift()).thenReturn(Flux.just(new RoomInventoryCountDriftDto(1, 2, 3, 4)));
+
+        StepVerifier.create(checker.check())
+                .expectNext(1L)
+                .verifyComplete();
+        assertEquals(1.0, meterRegistry.get("room.inventory.count.drift").gauge().value());
+        verify(inventoryRepository, never()).recountRoomInventoryCounts();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void checkShouldRepairDriftWhenEnabled() {
+        RoomInventoryCountChecker checker = new RoomInventoryCountChecker(inventoryRepository, transactionalOperator, meterRegistry, true);
+        when(inventoryRepository.findRoomInventoryCountDrift()).thenReturn(Flux.just(new RoomInventoryCountDriftDto(1, 2, 0, 4)));
+        when(inventoryRepository.lockInventoryItems()).thenReturn(Mono.empty());
+        when(inventoryRepository.recountRoomInventoryCounts()).thenReturn(Mono.just(1));
+        when(inventoryRepository.deleteStaleRoomInventoryCounts()).thenReturn(Mono.just(0));
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        StepVerifier.create(checker.check())
+                .expectNext(1L)
+                .verifyComplete();
+        verify(inventoryRepository).deleteStaleRoomInventoryCounts();
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.inventoryservice.inventoryitem;
+
+import org.example.inventoryservice.inventoryitem.dto.ImportEventDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryItemImportServiceTest {
+
+    @Mock
+    private InventoryItemImportRepository inventoryItemImportRepository;
+
+    @Mock
+    private SignNumberIndex signNumberIndex;
+
+    private InventoryItemImportService inventoryItemImportService;
+
+    @BeforeEach
+    void setUp() {
+        inventoryItemImportService = new InventoryItemImportService(inventoryItemImportRepository, signNumberIndex, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importCsvShouldLoadInChunksAndReportRejects() {
+        InventoryItem placed = InventoryItem.builder().id(10).inventoryId(1).inventoryNumber(1).roomId(7).build();
+        when(inventoryItemImportRepository.load(anyList()))
+                .thenReturn(Mono.just(new InventoryItemImportRepository.ChunkResult(List.of(placed),
+                        List.of(ImportEventDto.reject(3, "Inventory number 2 already exists")))))
+                .thenReturn(Mono.just(new InventoryItemImportRepository.ChunkResult(
+                        List.of(InventoryItem.builder().id(11).inventoryId(1).inventoryNumber(4).build()), List.of())));
+
+        // the second line is split across two buffers
+        Flux<DataBuffer> content = Flux.just("inventory_id,inventory_number,building_id,room_id\n1,1,",
+                        "3,7\r\n1,2,3\n1,x,3\n\n1,4,3,\n")
+                .map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+
+        StepVerifier.create(inventoryItemImportService.importCsv(content))
+                .expectNextMatches(event -> event.getType().equals(ImportEventDto.REJECT) && event.getLine() == 3)
+                .expectNextMatches(event -> event.getType().equals(ImportEventDto.PROGRESS) && event.getRead() == 2)
+                .expectNextMatches(event -> event.getType().equals(ImportEventDto.REJECT) && event.getLine() == 4
+                        && event.getMessage().contains("inventory_number"))
+                .expectNextMatches(event -> event.getType().equals(ImportEventDto.PROGRESS) && event.getRead() == 4)
+                .assertNext(event -> {
+                    assertEquals(ImportEventDto.DONE, event.getType());
+                    assertEquals(4, event.getRead());
+                    assertEquals(2, event.getLoaded());
+                    assertEquals(2, event.getRejected());
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<List<ImportRow>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(inventoryItemImportRepository, times(2)).load(chunks.capture());
+        assertEquals(7, chunks.getAllValues().get(0).get(0).item().getRoomId());
+        assertEquals(1, chunks.getAllValues().get(1).size());
+        verify(signNumberIndex).putAll(List.of(placed));
+    }
+
+    @Test
+    void parseShouldRejectMissingColumns() {
+        ImportRow row = InventoryItemImportService.parse(2, "1,2");
+
+        assertEquals(2, row.line());
+        assertEquals("Expected inventory_id,inventory_number,building_id[,room_id]", row.reject());
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.inventoryservice.inventoryitem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryItemRangeServiceTest {
+
+    @Mock
+    private InventoryItemRangeRepository inventoryItemRangeRepository;
+
+    private InventoryItemRangeService inventoryItemRangeService;
+
+    @BeforeEach
+    void setUp() {
+        inventoryItemRangeService = new InventoryItemRangeService(inventoryItemRangeRepository, true);
+    }
+
+    @Test
+    void materializeFirstShouldTakeLowestNumbersAcrossRanges() {
+        when(inventoryItemRangeRepository.findAllByInventoryIdAndBuildingIdOrderByStartNumber(1, 3)).thenReturn(Flux.just(
+                new InventoryItemRange(1, 1, 3, 1, 3),
+                new InventoryItemRange(2, 1, 3, 10, 20),
+                new InventoryItemRange(3, 1, 3, 40, 50)));
+        when(inventoryItemRangeRepository.materialize(1, 3, 1, 3)).thenReturn(Mono.just(3));
+        when(inventoryItemRangeRepository.materialize(1, 3, 10, 11)).thenReturn(Mono.just(2));
+
+        StepVerifier.create(inventoryItemRangeService.materializeFirst(1, 3, 5))
+                .expectNext(5)
+                .verifyComplete();
+        verify(inventoryItemRangeRepository, never()).materialize(eq(1), eq(3), eq(40), anyInt());
+    }
+
+    @Test
+    void materializeFirstWithoutRangesShouldReturnZero() {
+        when(inventoryItemRangeRepository.findAllByInventoryIdAndBuildingIdOrderByStartNumber(1, 3)).thenReturn(Flux.empty());
+
+        StepVerifier.create(inventoryItemRangeService.materializeFirst(1, 3, 5))
+                .expectNext(0)
+                .verifyComplete();
+    }
+}
@@ -1,29 +1,48 @@
 package org.example.inventoryservice.inventoryitem;
 
 import okhttp3.mockwebserver.MockWebServer;
+import org.example.inventoryservice.cache.RoomInfoCache;
 import org.example.inventoryservice.exception.CustomBadRequestException;
 import org.example.inventoryservice.exception.ResourceNotFoundException;
 import org.example.inventoryservice.exception.UniqueKeyException;
+import org.example.inventoryservice.exception.WrongInputRangeException;
 import org.example.inventoryservice.inventory.InventoryRepository;
 import org.example.inventoryservice.inventoryitem.dto.InventoryItemDto;
 import org.example.inventoryservice.inventoryitem.dto.InventoryItemWithRoomInfoDto;
+import org.example.inventoryservice.inventoryitem.dto.InventoryNumberRunDto;
+import org.example.inventoryservice.inventoryitem.dto.RelocateRequestDto;
+import org.example.inventoryservice.inventoryitem.dto.RelocateResultDto;
+import org.example.inventoryservice.inventoryitem.dto.RoomDto;
+import org.example.inventoryservice.inventoryitem.dto.SignNumberItemDto;
+import org.example.inventoryservice.inventoryitem.dto.SignNumberLookupDto;
+import org.example.inventoryservice.inventoryitem.dto.SignNumberSuggestionDto;
+import org.example.inventoryservice.payload.Cursor;
 import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 
 @ExtendWith(MockitoExtension.class)
 class InventoryItemServiceTest {
@@ -35,7 +54,13 @@ class InventoryItemServiceTest {
     @Mock
     private InventoryRepository inventoryRepository;
     @Mock
-    private WebClient.Builder webClientBuilder;
+    private RoomInfoCache roomInfoCache;
+    @Mock
+    private SignNumberIndex signNumberIndex;
+    @Mock
+    private InventoryItemRangeService inventoryItemRangeService;
+    @Mock
+    private InventoryNumberAllocator inventoryNumberAllocator;
 
     public static MockWebServer mockBackEnd;
 
@@ -53,14 +78,15 @@ class InventoryItemServiceTest {
 
     @BeforeEach
     void setUp() {
-        inventoryItemService = new InventoryItemService(inventoryItemRepository, inventoryRepository, webClientBuilder);
+        inventoryItemService = new InventoryItemService(inventoryItemRepository, inventoryRepository, roomInfoCache,
+                signNumberIndex, inventoryItemRangeService, inventoryNumberAllocator);
     }
 
     InventoryItemDto inventoryItemDto = new InventoryItemDto(1, 1, 23, 1, 1, "Test name");
 
     @Test
     void getAllInventoryItemsSuccess() {
-        BDDMockito.given(inventoryItemRepository.findAll())
+        BDDMockito.given(inventoryItemRepository.findPage(0L, 2))
                 .willReturn(Flux.just(
                         InventoryItem.builder().build(),
                         InventoryItem.builder().build()
@@ -108,7 +134,7 @@ class InventoryItemServiceTest {
 
     @Test
     void addInventoryItemSuccess() {
-        BDDMockito.given(inventoryItemRepository.save(any(InventoryItem.class)))
+        BDDMockito.given(inventoryItemRepository.insertOutsideRanges(1, 23, 1, null))
                 .willReturn(Mono.just(InventoryItem.builder().build()));
 
         Mono<InventoryItem> addInventoryItem = inventoryItemService.addInventoryItem(inventoryItemDto);
@@ -122,8 +148,8 @@ class InventoryItemServiceTest {
     void addInventoryItemAlreadyExist() {
         InventoryItemDto inventoryItemDto = InventoryItemDto.builder().inventoryId(1).inventoryNumber(1).buildingId(1).build();
         InventoryItem inventoryItem = new InventoryItem(1, 1, 1);
-        BDDMockito.given(inventoryItemRepository.save(any(InventoryItem.class)))
-                .willReturn(Mono.error(new UniqueKeyException("InventoryItem with the same name already exists.")));
+        BDDMockito.given(inventoryItemRepository.insertOutsideRanges(1, 1, 1, null))
+                .willReturn(Mono.error(new DuplicateKeyException("inventory_item_inventory_number_inventory_id_key")));
         Mono<InventoryItem> result = inventoryItemService.addInventoryItem(inventoryItemDto);
         StepVerifier.create(result)
                 .expectError(UniqueKeyException.class)
@@ -161,11 +187,14 @@ class InventoryItemServiceTest {
 
     @Test
     void deleteInventoryItemSuccess() {
-        BDDMockito.given(inventoryItemRepository.deleteById(1))
-                .willReturn(Mono.empty());
+        BDDMockito.given(inventoryItemRepository.deleteByIdReturning(1))
+                .willReturn(Mono.just(InventoryItem.builder().id(1).inventoryId(1).inventoryNumber(23).build()));
         Mono<Boolean> result = inventoryItemService.deleteInventoryItem(1);
         StepVerifier.create(result)
+                .expectNext(true)
                 .verifyComplete();
+        Mockito.verify(signNumberIndex).remove(1, 23);
+        Mockito.verify(inventoryNumberAllocator).release(1, 23);
     }
 
     @Test
@@ -204,8 +233,300 @@ class InventoryItemServiceTest {
                 .verify();
     }
 
+    @Test
+    void getInventoryItemRoomInfoBySignNumberSuccess() {
+        BDDMockito.given(inventoryItemRepository.findByInventorySignAndNumber("A", 23, 0, 10))
+                .willReturn(Flux.just(inventoryItemDto));
+        BDDMockito.given(roomInfoCache.getAll(List.of(1)))
+                .willReturn(Mono.just(Map.of(1, RoomDto.builder().id(1).name("Room 1").buildingId(1).buildingName("Building 1").build())));
+
+        StepVerifier.create(inventoryItemService.getInventoryItemRoomInfoBySignNumber("A23", 0, 10))
+                .expectNextMatches(item -> item.getRoomName().equals("Room 1") && item.getBuildingName().equals("Building 1"))
+                .verifyComplete();
+    }
 
-}
+    @Test
+    void getInventoryItemRoomInfoBySignNumberFromIndex() {
+        BDDMockito.given(signNumberIndex.find("A", 23))
+                .willReturn(Optional.of(List.of(inventoryItemDto)));
+        BDDMockito.given(roomInfoCache.getAll(List.of(1)))
+                .willReturn(Mono.just(Map.of(1, RoomDto.builder().id(1).name("Room 1").buildingId(1).buildingName("Building 1").build())));
+
+        StepVerifier.create(inventoryItemService.getInventoryItemRoomInfoBySignNumber("A23", 0, 10))
+                .expectNextMatches(item -> item.getRoomName().equals("Room 1"))
+                .verifyComplete();
+        Mockito.verify(inventoryItemRepository, Mockito.never()).findByInventorySignAndNumber(any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void autocompleteShouldScanOneRangePerNumberLength() {
+        BDDMockito.given(inventoryItemRepository.autocomplete(any(), any(), any(), anyInt()))
+                .willReturn(Flux.just(SignNumberSuggestionDto.builder().id(1).signNumber("A23").build()));
+
+        StepVerifier.create(inventoryItemService.autocomplete("A23", 10))
+                .expectNextMatches(suggestion -> suggestion.getSignNumber().equals("A23"))
+                .verifyComplete();
+
+        ArgumentCaptor<Integer[]> starts = ArgumentCaptor.forClass(Integer[].class);
+        ArgumentCaptor<Integer[]> ends = ArgumentCaptor.forClass(Integer[].class);
+        Mockito.verify(inventoryItemRepository).autocomplete(Mockito.eq("A"), starts.capture(), ends.capture(), Mockito.eq(10));
+        Assertions.assertEquals(8, starts.getValue().length);
+        Assertions.assertEquals(230, starts.getValue()[1]);
+        Assertions.assertEquals(239, ends.getValue()[1]);
+        Assertions.assertEquals(239_999_999, ends.getValue()[7]);
+    }
+
+    @Test
+    void autocompleteWithLettersOnlyShouldMatchSignPrefix() {
+        BDDMockito.given(inventoryItemRepository.autocomplete(Mockito.eq("AB%"),
+                        Mockito.eq(new Integer[]{0}), Mockito.eq(new Integer[]{Integer.MAX_VALUE}), Mockito.eq(5)))
+                .willReturn(Flux.empty());
+
+        StepVerifier.create(inventoryItemService.autocomplete("AB", 5))
+                .verifyComplete();
+        StepVerifier.create(inventoryItemService.autocomplete("A_", 5))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+    }
+
+    @Test
+    void autocompleteWithBadLimitShouldReturnError() {
+        StepVerifier.create(inventoryItemService.autocomplete("A23", InventoryItemService.MAX_AUTOCOMPLETE_LIMIT + 1))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+    }
+
+    @Test
+    void numberRangesShouldSkipLeadingZerosAndOverflow() {
+        Assertions.assertTrue(InventoryItemService.numberRanges("023").isEmpty());
+        Assertions.assertTrue(InventoryItemService.numberRanges("99999999999").isEmpty());
+        Assertions.assertEquals(1, InventoryItemService.numberRanges("0").size());
+        Assertions.assertEquals(1, InventoryItemService.numberRanges("2147483647").size());
+    }
 
+    @Test
+    void relocateByIdsShouldReportMovedAndMissing() {
+        RelocateRequestDto request = RelocateRequestDto.builder().roomId(5).itemIds(List.of(1, 2, 2, 3)).build();
+        BDDMockito.given(roomInfoCache.getAll(List.of(5)))
+                .willReturn(Mono.just(Map.of(5, RoomDto.builder().id(5).buildingId(9).build())));
+        List<InventoryItem> moved = List.of(
+                InventoryItem.builder().id(1).inventoryId(1).inventoryNumber(1).roomId(5).buildingId(9).build(),
+                InventoryItem.builder().id(3).inventoryId(1).inventoryNumber(3).roomId(5).buildingId(9).build());
+        BDDMockito.given(inventoryItemRepository.relocateByIds(new Integer[]{1, 2, 3}, 5, 9))
+                .willReturn(Flux.fromIterable(moved));
+
+        StepVerifier.create(inventoryItemService.relocate(request))
+                .expectNext(new RelocateResultDto(5, 9, 2, 1))
+                .verifyComplete();
+        Mockito.verify(signNumberIndex).putAll(moved);
+    }
 
+    @Test
+    void relocateToRoomOfAnotherBuildingShouldReturnError() {
+        RelocateRequestDto request = RelocateRequestDto.builder().roomId(5).buildingId(8)
+                .inventoryId(1).startNumber(1).endNumber(100).build();
+        BDDMockito.given(roomInfoCache.getAll(List.of(5)))
+                .willReturn(Mono.just(Map.of(5, RoomDto.builder().id(5).buildingId(9).build())));
 
+        StepVerifier.create(inventoryItemService.relocate(request))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+        Mockito.verify(inventoryItemRepository, Mockito.never()).relocateByNumberRange(any(), anyInt(), anyInt(), any(), any());
+    }
+
+    @Test
+    void relocateWithIdsAndRangeShouldReturnError() {
+        RelocateRequestDto request = RelocateRequestDto.builder().roomId(5).itemIds(List.of(1))
+                .inventoryId(1).startNumber(1).endNumber(100).build();
+
+        StepVerifier.create(inventoryItemService.relocate(request))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+    }
+
+    @Test
+    void relocateByNumberRangeShouldSplitRangesFirst() {
+        RelocateRequestDto request = RelocateRequestDto.builder().roomId(5).inventoryId(1).startNumber(10).endNumber(19).build();
+        BDDMockito.given(roomInfoCache.getAll(List.of(5)))
+                .willReturn(Mono.just(Map.of(5, RoomDto.builder().id(5).buildingId(9).build())));
+        BDDMockito.given(inventoryItemRangeService.materialize(1, 10, 19)).willReturn(Mono.just(10));
+        BDDMockito.given(inventoryItemRepository.relocateByNumberRange(1, 10, 19, 5, 9))
+                .willReturn(Flux.just(InventoryItem.builder().id(1).inventoryId(1).inventoryNumber(10).roomId(5).build()));
+
+        StepVerifier.create(inventoryItemService.relocate(request))
+                .expectNext(new RelocateResultDto(5, 9, 1, 9))
+                .verifyComplete();
+    }
+
+    @Test
+    void addInventoryItemInsideRangeShouldReturnError() {
+        BDDMockito.given(inventoryItemRepository.insertOutsideRanges(1, 23, 1, null)).willReturn(Mono.empty());
+
+        StepVerifier.create(inventoryItemService.addInventoryItem(inventoryItemDto))
+                .expectError(UniqueKeyException.class)
+                .verify();
+        Mockito.verify(signNumberIndex, Mockito.never()).put(any());
+    }
+
+    @Test
+    void updateInventoryItemToNumberInsideRangeShouldReturnError() {
+        InventoryItemDto renumbered = InventoryItemDto.builder().inventoryId(1).inventoryNumber(15).roomId(1).buildingId(1).build();
+        BDDMockito.given(inventoryItemRepository.findById(1)).willReturn(Mono.just(new InventoryItem(1, 1, 1)));
+        BDDMockito.given(inventoryItemRepository.updateOutsideRanges(1, 1, 15, 1, 1)).willReturn(Mono.empty());
+
+        StepVerifier.create(inventoryItemService.updateInventoryItem(1, renumbered))
+                .expectError(UniqueKeyException.class)
+                .verify();
+        Mockito.verify(inventoryItemRepository, Mockito.never()).save(any(InventoryItem.class));
+    }
+
+    @Test
+    void addInventoryItemWithoutNumberShouldSaveTheBuildingId() {
+        InventoryItemDto withoutNumber = InventoryItemDto.builder().inventoryId(1).buildingId(9).build();
+        BDDMockito.given(inventoryNumberAllocator.next(1)).willReturn(Mono.just(101));
+        BDDMockito.given(inventoryItemRepository.save(any(InventoryItem.class)))
+                .willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(inventoryItemService.addInventoryItem(withoutNumber))
+                .expectNextCount(1)
+                .verifyComplete();
+        ArgumentCaptor<InventoryItem> saved = ArgumentCaptor.forClass(InventoryItem.class);
+        Mockito.verify(inventoryItemRepository).save(saved.capture());
+        Assertions.assertEquals(9, saved.getValue().getBuildingId());
+        Assertions.assertNull(saved.getValue().getRoomId());
+    }
+
+    @Test
+    void addInventoryItemWithoutNumberAndConstraintViolationShouldKeepTheCause() {
+        InventoryItemDto withoutNumber = InventoryItemDto.builder().inventoryId(1).buildingId(9).build();
+        BDDMockito.given(inventoryNumberAllocator.next(1)).willReturn(Mono.just(101));
+        BDDMockito.given(inventoryItemRepository.save(any(InventoryItem.class)))
+                .willReturn(Mono.error(new DataIntegrityViolationException("inventory_item_building_id_not_null")));
+
+        StepVerifier.create(inventoryItemService.addInventoryItem(withoutNumber))
+                .expectError(DataIntegrityViolationException.class)
+                .verify();
+    }
+
+    @Test
+    void addInventoryItemWithNumberShouldInsertTheBuildingId() {
+        InventoryItemDto numbered = InventoryItemDto.builder().inventoryId(1).inventoryNumber(23).buildingId(9).build();
+        BDDMockito.given(inventoryItemRepository.insertOutsideRanges(1, 23, 9, null))
+                .willReturn(Mono.just(InventoryItem.builder().id(5).inventoryId(1).inventoryNumber(23).buildingId(9).build()));
+
+        StepVerifier.create(inventoryItemService.addInventoryItem(numbered))
+                .expectNextMatches(saved -> saved.getBuildingId() == 9 && saved.getRoomId() == null)
+                .verifyComplete();
+    }
+
+    @Test
+    void addInventoryItemWithoutNumberShouldUseAllocatedNumber() {
+        InventoryItemDto withoutNumber = InventoryItemDto.builder().inventoryId(1).buildingId(1).build();
+        BDDMockito.given(inventoryNumberAllocator.next(1)).willReturn(Mono.just(101), Mono.just(102));
+        BDDMockito.given(inventoryItemRepository.save(any(InventoryItem.class)))
+                .willReturn(Mono.error(new DuplicateKeyException("inventory_item_inventory_number_inventory_id_key")),
+                        Mono.just(InventoryItem.builder().id(7).inventoryId(1).inventoryNumber(102).build()));
+
+        StepVerifier.create(inventoryItemService.addInventoryItem(withoutNumber))
+                .expectNextMatches(saved -> saved.getInventoryNumber() == 102)
+                .verifyComplete();
+        Mockito.verify(inventoryItemRepository, Mockito.never()).insertOutsideRanges(any(), any(), any(), any());
+    }
+
+    @Test
+    void lookupShouldAnswerEveryTagInInputOrder() {
+        BDDMockito.given(inventoryItemRepository.findAllBySignNumbers(new String[]{"A", "B"}, new Integer[]{23, 5}))
+                .willReturn(Flux.just(
+                        SignNumberItemDto.builder().id(4).signNumber("A23").inventoryId(1).inventoryNumber(23).roomId(5).buildingId(9).build(),
+                        SignNumberItemDto.builder().signNumber("A23").inventoryId(2).inventoryNumber(23).buildingId(9).build()));
+        BDDMockito.given(roomInfoCache.getAll(List.of(5)))
+                .willReturn(Mono.just(Map.of(5, RoomDto.builder().id(5).name("Lab").buildingId(9).build())));
+
+        StepVerifier.create(inventoryItemService.lookup(List.of("A23", "23", "B5", "A23")))
+                .assertNext(result -> {
+                    Assertions.assertEquals(SignNumberLookupDto.FOUND, result.getStatus());
+                    Assertions.assertEquals(2, result.getItems().size());
+                    Assertions.assertEquals("Lab", result.getItems().get(0).getRoomName());
+                    Assertions.assertNull(result.getItems().get(1).getRoomId());
+                })
+                .expectNextMatches(result -> SignNumberLookupDto.INVALID.equals(result.getStatus()))
+                .expectNextMatches(result -> SignNumberLookupDto.NOT_FOUND.equals(result.getStatus()) && result.getItems().isEmpty())
+                .expectNextMatches(result -> "A23".equals(result.getSignNumber()) && result.getItems().size() == 2)
+                .verifyComplete();
+        Mockito.verify(roomInfoCache).getAll(List.of(5));
+    }
+
+    @Test
+    void lookupWithMissingTagShouldAnswerItAsInvalid() {
+        BDDMockito.given(inventoryItemRepository.findAllBySignNumbers(new String[]{"B"}, new Integer[]{5}))
+                .willReturn(Flux.empty());
+
+        StepVerifier.create(inventoryItemService.lookup(Arrays.asList("B5", null)))
+                .expectNextMatches(result -> SignNumberLookupDto.NOT_FOUND.equals(result.getStatus()))
+                .expectNextMatches(result -> SignNumberLookupDto.INVALID.equals(result.getStatus())
+                        && result.getSignNumber() == null && "Sign-number is missing".equals(result.getMessage()))
+                .verifyComplete();
+    }
+
+    @Test
+    void lookupWithoutSignNumbersShouldReturnError() {
+        StepVerifier.create(inventoryItemService.lookup(List.of()))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+    }
+
+    @Test
+    void getInventoryItemsByNumberRangeShouldContinueAfterCursor() {
+        String after = Cursor.encodeNumbered(1, 1_500);
+        BDDMockito.given(inventoryItemRepository.findAllByNumberRange("A", 1_000, 5_000, 1, 1_500, 2))
+                .willReturn(Flux.just(
+                        InventoryItem.builder().id(8).inventoryId(1).inventoryNumber(1_501).roomId(5).buildingId(9).build(),
+                        InventoryItem.builder().inventoryId(1).inventoryNumber(1_502).buildingId(9).build()));
+
+        StepVerifier.create(inventoryItemService.getInventoryItemsByNumberRange("A", 1_000, 5_000, after, 2))
+                .expectNextMatches(page -> page.getContent().size() == 2
+                        && Cursor.encodeNumbered(1, 1_502).equals(page.getNext()))
+                .verifyComplete();
+    }
+
+    @Test
+    void getInventoryNumberRunsShouldUseRunEndAsCursor() {
+        BDDMockito.given(inventoryItemRepository.findRunsByNumberRange("A", 1_000, 5_000, 0, 0, 1, InventoryItemService.RUN_SCAN_FACTOR))
+                .willReturn(Flux.just(new InventoryNumberRunRow(1, 1_000, 2_999, 5, 9, false)));
+
+        StepVerifier.create(inventoryItemService.getInventoryNumberRuns("A", 1_000, 5_000, null, 1))
+                .expectNextMatches(page -> page.getContent().equals(List.of(new InventoryNumberRunDto(1, 1_000, 2_999, 5, 9)))
+                        && Cursor.encodeNumbered(1, 2_999).equals(page.getNext()))
+                .verifyComplete();
+    }
+
+    @Test
+    void getInventoryNumberRunsCutByTheScanLimitShouldStillHaveNextCursor() {
+        BDDMockito.given(inventoryItemRepository.findRunsByNumberRange("A", 1, 5_000, 1, 40, 10, 10 * InventoryItemService.RUN_SCAN_FACTOR))
+                .willReturn(Flux.just(
+                        new InventoryNumberRunRow(1, 41, 60, 5, 9, true),
+                        new InventoryNumberRunRow(1, 61, 99, 6, 9, true)));
+
+        StepVerifier.create(inventoryItemService.getInventoryNumberRuns("A", 1, 5_000, Cursor.encodeNumbered(1, 40), 10))
+                .expectNextMatches(page -> page.getContent().size() == 2
+                        && Cursor.encodeNumbered(1, 99).equals(page.getNext()))
+                .verifyComplete();
+    }
+
+    @Test
+    void getInventoryNumberRunsWithShortUntruncatedPageShouldEnd() {
+        BDDMockito.given(inventoryItemRepository.findRunsByNumberRange("A", 1, 5_000, 0, 0, 10, 10 * InventoryItemService.RUN_SCAN_FACTOR))
+                .willReturn(Flux.just(new InventoryNumberRunRow(1, 1, 60, 5, 9, false)));
+
+        StepVerifier.create(inventoryItemService.getInventoryNumberRuns("A", 1, 5_000, null, 10))
+                .expectNextMatches(page -> page.getNext() == null)
+                .verifyComplete();
+    }
+
+    @Test
+    void getInventoryItemsByNumberRangeWithReversedRangeShouldReturnError() {
+        StepVerifier.create(inventoryItemService.getInventoryItemsByNumberRange("A", 5_000, 1_000, null, 10))
+                .expectError(WrongInputRangeException.class)
+                .verify();
+    }
+}
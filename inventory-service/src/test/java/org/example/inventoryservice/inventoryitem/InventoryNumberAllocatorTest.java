@@ -0,0 +1,78 @@
+package org.example.inventoryservice.inventoryitem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryNumberAllocatorTest {
+
+    @Mock
+    private InventoryNumberCounterRepository inventoryNumberCounterRepository;
+
+    @Test
+    void nextShouldServeNumbersFromReservedBlock() {
+        when(inventoryNumberCounterRepository.reserve(1, 3)).thenReturn(Mono.just(11), Mono.just(21));
+        InventoryNumberAllocator allocator = new InventoryNumberAllocator(inventoryNumberCounterRepository, 3, false);
+
+        StepVerifier.create(Flux.range(0, 4).concatMap(i -> allocator.next(1)))
+                .expectNext(11, 12, 13, 21)
+                .verifyComplete();
+        verify(inventoryNumberCounterRepository, times(2)).reserve(1, 3);
+    }
+
+    @Test
+    void nextShouldReuseReleasedNumbersWhenEnabled() {
+        when(inventoryNumberCounterRepository.reserve(1, 10)).thenReturn(Mono.just(11));
+        InventoryNumberAllocator allocator = new InventoryNumberAllocator(inventoryNumberCounterRepository, 10, true);
+
+        StepVerifier.create(allocator.next(1)).expectNext(11).verifyComplete();
+        allocator.release(1, 4);
+        StepVerifier.create(Flux.range(0, 2).concatMap(i -> allocator.next(1)))
+                .expectNext(4, 12)
+                .verifyComplete();
+    }
+
+    @Test
+    void concurrentClientsShouldNeverGetTheSameNumber() {
+        int clients = 32;
+        int perClient = 500;
+        int blockSize = 50;
+        AtomicInteger counter = new AtomicInteger(1);
+        when(inventoryNumberCounterRepository.reserve(eq(1), anyInt())).thenAnswer(invocation ->
+                Mono.fromCallable(() -> counter.getAndAdd(blockSize)).subscribeOn(Schedulers.parallel()));
+        InventoryNumberAllocator allocator = new InventoryNumberAllocator(inventoryNumberCounterRepository, blockSize, false);
+
+        List<Integer> numbers = Flux.range(0, clients)
+                .flatMap(client -> Flux.range(0, perClient)
+                        .concatMap(i -> allocator.next(1))
+                        .subscribeOn(Schedulers.parallel()), clients)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        Set<Integer> distinct = new HashSet<>(numbers);
+        assertEquals(clients * perClient, numbers.size());
+        assertEquals(numbers.size(), distinct.size());
+        // racing refills cost at most one extra block per client
+        verify(inventoryNumberCounterRepository, atMost(clients * perClient / blockSize + clients)).reserve(eq(1), anyInt());
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.inventoryservice.inventoryitem;
+
+import org.example.inventoryservice.exception.CustomBadRequestException;
+import org.example.inventoryservice.inventoryitem.dto.TransferInfoDto;
+import org.example.inventoryservice.inventoryitem.dto.TransferInventoryDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryTransferServiceTest {
+
+    @Mock
+    private InventoryItemRepository inventoryItemRepository;
+    @Mock
+    private InventoryItemRangeService inventoryItemRangeService;
+    @Mock
+    private SignNumberIndex signNumberIndex;
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    private InventoryTransferService inventoryTransferService;
+
+    @BeforeEach
+    void setUp() {
+        inventoryTransferService = new InventoryTransferService(inventoryItemRepository, inventoryItemRangeService, signNumberIndex, transactionalOperator);
+        lenient().when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void transferShouldMoveRequestedQuantities() {
+        List<InventoryItem> chairs = List.of(item(1, 1), item(2, 1));
+        List<InventoryItem> tables = List.of(item(7, 2));
+        when(inventoryItemRepository.transfer(1, 10, 20, 2)).thenReturn(Flux.fromIterable(chairs));
+        when(inventoryItemRepository.transfer(2, 10, 20, 1)).thenReturn(Flux.fromIterable(tables));
+
+        StepVerifier.create(inventoryTransferService.transfer(new TransferInfoDto(10, 20,
+                        List.of(new TransferInventoryDto(1, 2), new TransferInventoryDto(2, 1)), "New office")))
+                .assertNext(result -> {
+                    assertEquals(List.of(1, 2, 7), result.getItemIds());
+                    assertEquals("New office", result.getDescription());
+                })
+                .verifyComplete();
+        verify(signNumberIndex).putAll(List.of(item(1, 1), item(2, 1), item(7, 2)));
+    }
+
+    @Test
+    void transferShouldFailWhenNotEnoughItemsAreAvailable() {
+        when(inventoryItemRepository.transfer(1, 10, 20, 3)).thenReturn(Flux.just(item(1, 1)));
+        when(inventoryItemRangeService.materializeFirst(1, 10, 2)).thenReturn(Mono.just(0));
+
+        StepVerifier.create(inventoryTransferService.transfer(new TransferInfoDto(10, 20,
+                        List.of(new TransferInventoryDto(1, 3)), null)))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+        verify(signNumberIndex, never()).putAll(any());
+    }
+
+    @Test
+    void transferShouldSplitRangesForTheShortfall() {
+        when(inventoryItemRepository.transfer(1, 10, 20, 3)).thenReturn(Flux.just(item(1, 1)));
+        when(inventoryItemRangeService.materializeFirst(1, 10, 2)).thenReturn(Mono.just(2));
+        when(inventoryItemRepository.transfer(1, 10, 20, 2)).thenReturn(Flux.just(item(5, 1), item(6, 1)));
+
+        StepVerifier.create(inventoryTransferService.transfer(new TransferInfoDto(10, 20,
+                        List.of(new TransferInventoryDto(1, 3)), null)))
+                .assertNext(result -> assertEquals(List.of(1, 5, 6), result.getItemIds()))
+                .verifyComplete();
+    }
+
+    @Test
+    void transferToTheSameBuildingShouldReturnError() {
+        StepVerifier.create(inventoryTransferService.transfer(new TransferInfoDto(10, 10,
+                        List.of(new TransferInventoryDto(1, 3)), null)))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+        verify(inventoryItemRepository, never()).transfer(any(), any(), any(), anyInt());
+    }
+
+    private static InventoryItem item(int id, int inventoryId) {
+        return InventoryItem.builder().id(id).inventoryId(inventoryId).inventoryNumber(id).buildingId(20).build();
+    }
+}
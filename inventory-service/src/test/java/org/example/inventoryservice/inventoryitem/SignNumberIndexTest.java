@@ -0,0 +1,110 @@
+package org.example.inventoryservice.inventoryitem;
+
+import org.example.inventoryservice.inventory.Inventory;
+import org.example.inventoryservice.inventory.InventoryRepository;
+import org.example.inventoryservice.inventoryitem.dto.InventoryItemDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SignNumberIndexTest {
+
+    @Mock
+    private InventoryItemRepository inventoryItemRepository;
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    private SignNumberIndex signNumberIndex;
+
+    @BeforeEach
+    void setUp() {
+        signNumberIndex = new SignNumberIndex(inventoryItemRepository, inventoryRepository, Duration.ofHours(1));
+        lenient().when(inventoryItemRepository.findChangeHorizon()).thenReturn(Mono.just(100L), Mono.just(120L));
+        lenient().when(inventoryRepository.findAll()).thenReturn(Flux.just(
+                Inventory.builder().id(1).name("Chairs").inventorySign("A").build(),
+                Inventory.builder().id(2).name("Tables").inventorySign("A").build(),
+                Inventory.builder().id(3).name("Boards").inventorySign("B").build()));
+    }
+
+    @Test
+    void findShouldBeEmptyUntilLoaded() {
+        assertTrue(signNumberIndex.find("A", 1).isEmpty());
+    }
+
+    @Test
+    void findShouldReturnPlacedItemsOfAllInventoriesWithTheSign() {
+        when(inventoryItemRepository.findAllPlaced()).thenReturn(Flux.just(
+                item(11, 2, 7, 5), item(10, 1, 7, 4), item(12, 3, 7, 6)));
+        signNumberIndex.load();
+
+        List<InventoryItemDto> found = signNumberIndex.find("A", 7).orElseThrow();
+
+        assertEquals(2, found.size());
+        assertEquals(10, found.get(0).getId());
+        assertEquals(4, found.get(0).getRoomId());
+        assertEquals("Chairs", found.get(0).getInventoryName());
+        assertEquals(11, found.get(1).getId());
+        assertTrue(signNumberIndex.find("C", 7).orElseThrow().isEmpty());
+    }
+
+    @Test
+    void writesShouldKeepTheIndexCurrent() {
+        when(inventoryItemRepository.findAllPlaced()).thenReturn(Flux.fromStream(
+                IntStream.rangeClosed(1, 5000).mapToObj(number -> item(number, 1, number, 1))));
+        signNumberIndex.load();
+
+        signNumberIndex.put(item(1, 1, 1, 9));
+        signNumberIndex.put(item(2, 1, 2, null));
+        signNumberIndex.remove(1, 3);
+
+        assertEquals(4997, signNumberIndex.size());
+        assertEquals(9, signNumberIndex.find("A", 1).orElseThrow().get(0).getRoomId());
+        assertTrue(signNumberIndex.find("A", 2).orElseThrow().isEmpty());
+        assertTrue(signNumberIndex.find("A", 3).orElseThrow().isEmpty());
+        assertEquals(4000, signNumberIndex.find("A", 4000).orElseThrow().get(0).getId());
+    }
+
+    @Test
+    void refreshShouldApplyChangesCommittedSinceTheHorizon() {
+        when(inventoryItemRepository.findAllPlaced()).thenReturn(Flux.just(item(1, 1, 1, 4), item(2, 1, 2, 4)));
+        signNumberIndex.load();
+        // moved, deleted and added by another instance
+        when(inventoryItemRepository.findChangedSince(100L)).thenReturn(Flux.just(
+                item(1, 1, 1, 9),
+                InventoryItem.builder().inventoryId(1).inventoryNumber(2).build(),
+                item(3, 3, 5, 6)));
+
+        StepVerifier.create(signNumberIndex.refresh())
+                .expectNext(3)
+                .verifyComplete();
+
+        assertEquals(9, signNumberIndex.find("A", 1).orElseThrow().get(0).getRoomId());
+        assertTrue(signNumberIndex.find("A", 2).orElseThrow().isEmpty());
+        assertEquals(3, signNumberIndex.find("B", 5).orElseThrow().get(0).getId());
+
+        when(inventoryItemRepository.findChangeHorizon()).thenReturn(Mono.just(130L));
+        when(inventoryItemRepository.findChangedSince(120L)).thenReturn(Flux.empty());
+        StepVerifier.create(signNumberIndex.refresh())
+                .expectNext(0)
+                .verifyComplete();
+    }
+
+    private static InventoryItem item(int id, int inventoryId, int inventoryNumber, Integer roomId) {
+        return InventoryItem.builder().id(id).inventoryId(inventoryId).inventoryNumber(inventoryNumber).roomId(roomId).build();
+    }
+}
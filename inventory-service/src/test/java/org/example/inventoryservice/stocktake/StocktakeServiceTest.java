@@ -0,0 +1,143 @@
+package org.example.inventoryservice.stocktake;
+
+import org.example.inventoryservice.exception.CustomBadRequestException;
+import org.example.inventoryservice.exception.ResourceNotFoundException;
+import org.example.inventoryservice.inventory.Inventory;
+import org.example.inventoryservice.inventory.InventoryRepository;
+import org.example.inventoryservice.inventoryitem.InventoryItem;
+import org.example.inventoryservice.inventoryitem.InventoryItemRange;
+import org.example.inventoryservice.inventoryitem.InventoryItemRangeRepository;
+import org.example.inventoryservice.inventoryitem.InventoryItemRepository;
+import org.example.inventoryservice.inventoryitem.dto.SignNumberItemDto;
+import org.example.inventoryservice.stocktake.dto.StocktakeOpenDto;
+import org.example.inventoryservice.stocktake.dto.StocktakeSessionDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StocktakeServiceTest {
+
+    @Mock
+    private InventoryItemRepository inventoryItemRepository;
+    @Mock
+    private InventoryRepository inventoryRepository;
+    @Mock
+    private InventoryItemRangeRepository inventoryItemRangeRepository;
+
+    private StocktakeService stocktakeService;
+
+    @BeforeEach
+    void setUp() {
+        stocktakeService = new StocktakeService(inventoryItemRepository, inventoryRepository, inventoryItemRangeRepository,
+                10, Duration.ofHours(1));
+    }
+
+    @Test
+    void closeShouldReportMissingMisplacedAndUnexpected() {
+        when(inventoryRepository.findAll()).thenReturn(Flux.just(
+                Inventory.builder().id(1).inventorySign("A").build(),
+                Inventory.builder().id(2).inventorySign("B").build()));
+        when(inventoryItemRepository.findAllByRoomId(5)).thenReturn(Flux.just(
+                item(1, 1), item(1, 2), item(1, 3), item(2, 1)));
+        when(inventoryItemRepository.findAllBySignNumbers(new String[]{"A", "C"}, new Integer[]{9, 5})).thenReturn(Flux.just(
+                SignNumberItemDto.builder().id(40).signNumber("A9").inventoryId(1).inventoryNumber(9).roomId(7).build()));
+
+        StocktakeSessionDto opened = stocktakeService.open(new StocktakeOpenDto(5, null)).block();
+        assertEquals(4, opened.getExpected());
+
+        StepVerifier.create(stocktakeService.scan(opened.getId(), List.of("A1", "A2", "A2", "A9", "C5", "12")))
+                .assertNext(session -> {
+                    assertEquals(4, session.getScanned());
+                    assertEquals(2, session.getFound());
+                    assertEquals(1, session.getInvalid());
+                })
+                .verifyComplete();
+
+        StepVerifier.create(stocktakeService.close(opened.getId()))
+                .assertNext(report -> {
+                    assertEquals(List.of("A3", "B1"), report.getMissing());
+                    assertEquals(40, report.getMisplaced().get(0).getId());
+                    assertEquals(List.of("C5"), report.getUnexpected());
+                })
+                .verifyComplete();
+
+        StepVerifier.create(stocktakeService.getSession(opened.getId()))
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void closeThatFailsShouldKeepTheSession() {
+        when(inventoryRepository.findAll()).thenReturn(Flux.just(Inventory.builder().id(1).inventorySign("A").build()));
+        when(inventoryItemRepository.findAllByRoomId(5)).thenReturn(Flux.just(item(1, 1)));
+        when(inventoryItemRepository.findAllBySignNumbers(new String[]{"A"}, new Integer[]{9}))
+                .thenReturn(Flux.error(new IllegalStateException("connection lost")));
+
+        StocktakeSessionDto opened = stocktakeService.open(new StocktakeOpenDto(5, null)).block();
+        stocktakeService.scan(opened.getId(), List.of("A1", "A9")).block();
+
+        StepVerifier.create(stocktakeService.close(opened.getId()))
+                .expectError(IllegalStateException.class)
+                .verify();
+        StepVerifier.create(stocktakeService.getSession(opened.getId()))
+                .assertNext(session -> assertEquals(1, session.getFound()))
+                .verifyComplete();
+    }
+
+    @Test
+    void openForBuildingShouldExpectRangeStoredItems() {
+        when(inventoryRepository.findAll()).thenReturn(Flux.just(Inventory.builder().id(1).inventorySign("A").build()));
+        when(inventoryItemRepository.findAllByBuildingId(3)).thenReturn(Flux.just(item(1, 1)));
+        when(inventoryItemRangeRepository.findAllByBuildingId(3)).thenReturn(Flux.just(
+                new InventoryItemRange(1, 1, 3, 2, 50_000)));
+
+        StepVerifier.create(stocktakeService.open(new StocktakeOpenDto(null, 3)))
+                .assertNext(session -> assertEquals(50_000, session.getExpected()))
+                .verifyComplete();
+    }
+
+    @Test
+    void scanShouldCountMissingTagsAsInvalid() {
+        when(inventoryRepository.findAll()).thenReturn(Flux.just(Inventory.builder().id(1).inventorySign("A").build()));
+        when(inventoryItemRepository.findAllByRoomId(5)).thenReturn(Flux.just(item(1, 1)));
+        StocktakeSessionDto opened = stocktakeService.open(new StocktakeOpenDto(5, null)).block();
+
+        StepVerifier.create(stocktakeService.scan(opened.getId(), Arrays.asList("A1", null)))
+                .assertNext(session -> {
+                    assertEquals(1, session.getFound());
+                    assertEquals(1, session.getInvalid());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void scanWithoutSignNumbersShouldReturnError() {
+        StepVerifier.create(stocktakeService.scan(UUID.randomUUID(), null))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+    }
+
+    @Test
+    void openWithRoomAndBuildingShouldReturnError() {
+        StepVerifier.create(stocktakeService.open(new StocktakeOpenDto(5, 1)))
+                .expectError(CustomBadRequestException.class)
+                .verify();
+    }
+
+    private static InventoryItem item(int inventoryId, int inventoryNumber) {
+        return InventoryItem.builder().inventoryId(inventoryId).inventoryNumber(inventoryNumber).roomId(5).build();
+    }
+}
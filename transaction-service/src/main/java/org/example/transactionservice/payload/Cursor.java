@@ -0,0 +1,46 @@
+package org.example.transactionservice.payload;
+
+import org.example.transactionservice.exception.CustomBadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor handed to clients as the {@code after} parameter.
+ * Clients must treat the value as a token; only this class knows its layout.
+ */
+public final class Cursor {
+
+    private Cursor() {
+    }
+
+    public static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String decode(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new CustomBadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public static String encodeId(Integer id) {
+        return encode(String.valueOf(id));
+    }
+
+    /**
+     * Returns the id encoded in the cursor, or 0 for an empty cursor so the first page starts before every id.
+     */
+    public static int decodeId(String cursor) {
+        if (cursor == null || cursor.isBlank())
+            return 0;
+        try {
+            return Integer.parseInt(decode(cursor));
+        } catch (NumberFormatException e) {
+            throw new CustomBadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+}
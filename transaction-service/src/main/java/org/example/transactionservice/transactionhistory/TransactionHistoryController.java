@@ -2,6 +2,7 @@ package org.example.transactionservice.transactionhistory;
 
 import lombok.RequiredArgsConstructor;
 import org.example.transactionservice.payload.ApiResponse;
+import org.example.transactionservice.payload.CursorPage;
 import org.example.transactionservice.transactionhistory.dto.TransactionHistoryDto;
 import org.example.transactionservice.transactionhistory.dto.TransferInfoDto;
 import org.springframework.http.HttpStatus;
@@ -25,6 +26,12 @@ public class TransactionHistoryController {
 
     }
 
+    @GetMapping(params = "after")
+    public Mono<CursorPage<TransactionHistoryDto>> getTransactionHistoryAfter(@RequestParam String after,
+                                                                              @RequestParam(defaultValue = "10") int size) {
+        return transactionHistoryService.getTransactionHistoryAfter(after, size);
+    }
+
     @GetMapping("/{id}")
     public Mono<TransactionHistoryDto> getTransactionById(@PathVariable Integer id) {
         return transactionHistoryService.getTransactionById(id);
@@ -1,7 +1,24 @@
 package org.example.transactionservice.transactionhistory;
 
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
 
 public interface TransactionHistoryRepository extends
         ReactiveCrudRepository<TransactionHistory, Integer> {
+
+    @Query("""
+            SELECT * FROM transaction_history
+            ORDER BY id
+            LIMIT :size OFFSET :offset
+            """)
+    Flux<TransactionHistory> findPage(long offset, int size);
+
+    @Query("""
+            SELECT * FROM transaction_history
+            WHERE id > :after
+            ORDER BY id
+            LIMIT :size
+            """)
+    Flux<TransactionHistory> findAllAfter(int after, int size);
 }
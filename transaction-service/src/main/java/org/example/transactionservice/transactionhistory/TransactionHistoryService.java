@@ -5,6 +5,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.example.transactionservice.exception.CustomBadRequestException;
 import org.example.transactionservice.exception.CustomGeneralException;
 import org.example.transactionservice.exception.ResourceNotFoundException;
+import org.example.transactionservice.payload.Cursor;
+import org.example.transactionservice.payload.CursorPage;
 import org.example.transactionservice.transactionhistory.dto.TransactionHistoryDto;
 import org.example.transactionservice.transactionhistory.dto.TransferInfoDto;
 import org.example.transactionservice.transactionitem.TransactionItem;
@@ -30,12 +32,22 @@ public class TransactionHistoryService {
             log.error("Bad request...");
             return Flux.error(() -> new CustomBadRequestException("Page and size should not be less than 1"));
         }
-        return transactionHistoryRepository.findAll()
-                .skip((long) page * size)
-                .take(size)
+        return transactionHistoryRepository.findPage((long) page * size, size)
                 .map(this::convertToTransactionDto);
     }
 
+    public Mono<CursorPage<TransactionHistoryDto>> getTransactionHistoryAfter(String after, int size) {
+        if (size <= 0) {
+            log.error("Bad request...");
+            return Mono.error(() -> new CustomBadRequestException("Size should not be less than 1"));
+        }
+        return Mono.fromCallable(() -> Cursor.decodeId(after))
+                .flatMapMany(afterId -> transactionHistoryRepository.findAllAfter(afterId, size))
+                .map(this::convertToTransactionDto)
+                .collectList()
+                .map(histories -> CursorPage.of(histories, size, TransactionHistoryDto::getId));
+    }
+
 
     public Mono<TransactionHistoryDto> getTransactionById(Integer id) {
         return transactionHistoryRepository.findById(id)
@@ -2,6 +2,7 @@ package org.example.transactionservice.transactionitem;
 
 import lombok.RequiredArgsConstructor;
 import org.example.transactionservice.payload.ApiResponse;
+import org.example.transactionservice.payload.CursorPage;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
@@ -23,6 +24,12 @@ public class TransactionItemController {
 
     }
 
+    @GetMapping(params = "after")
+    public Mono<CursorPage<TransactionItemDto>> getTransactionItemsAfter(@RequestParam String after,
+                                                                         @RequestParam(defaultValue = "10") int size) {
+        return transactionItemService.getTransactionItemsAfter(after, size);
+    }
+
     @GetMapping("/byHistoryId/{transactionHistoryId}")
     public Flux<TransactionItemDto> getAllTransactionItemByHistoryId(@PathVariable Integer transactionHistoryId,
                                                                      @RequestParam(defaultValue = "1") int page,
@@ -31,6 +38,13 @@ public class TransactionItemController {
 
     }
 
+    @GetMapping(value = "/byHistoryId/{transactionHistoryId}", params = "after")
+    public Mono<CursorPage<TransactionItemDto>> getTransactionItemsByHistoryIdAfter(@PathVariable Integer transactionHistoryId,
+                                                                                    @RequestParam String after,
+                                                                                    @RequestParam(defaultValue = "10") int size) {
+        return transactionItemService.getTransactionItemsByHistoryIdAfter(transactionHistoryId, after, size);
+    }
+
     @GetMapping("/{id}")
     public Mono<TransactionItemDto> getTransactionById(@PathVariable Integer id) {
         return transactionItemService.getTransactionById(id);
@@ -1,5 +1,6 @@
 package org.example.transactionservice.transactionitem;
 
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
 
@@ -7,4 +8,35 @@ public interface TransactionItemRepository extends ReactiveCrudRepository<Transa
 
 
     Flux<TransactionItem> findAllByTransactionHistoryId(Integer transactionHistoryId);
+
+    @Query("""
+            SELECT * FROM transaction_item
+            ORDER BY id
+            LIMIT :size OFFSET :offset
+            """)
+    Flux<TransactionItem> findPage(long offset, int size);
+
+    @Query("""
+            SELECT * FROM transaction_item
+            WHERE id > :after
+            ORDER BY id
+            LIMIT :size
+            """)
+    Flux<TransactionItem> findAllAfter(int after, int size);
+
+    @Query("""
+            SELECT * FROM transaction_item
+            WHERE transaction_history_id = :transactionHistoryId
+            ORDER BY id
+            LIMIT :size OFFSET :offset
+            """)
+    Flux<TransactionItem> findPageByTransactionHistoryId(Integer transactionHistoryId, long offset, int size);
+
+    @Query("""
+            SELECT * FROM transaction_item
+            WHERE transaction_history_id = :transactionHistoryId AND id > :after
+            ORDER BY id
+            LIMIT :size
+            """)
+    Flux<TransactionItem> findAllByTransactionHistoryIdAfter(Integer transactionHistoryId, int after, int size);
 }
@@ -5,6 +5,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.example.transactionservice.exception.CustomBadRequestException;
 import org.example.transactionservice.exception.CustomGeneralException;
 import org.example.transactionservice.exception.ResourceNotFoundException;
+import org.example.transactionservice.payload.Cursor;
+import org.example.transactionservice.payload.CursorPage;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,23 +25,43 @@ public class TransactionItemService {
             log.error("Bad request...");
             return Flux.error(() -> new CustomBadRequestException("Page and size should not be less than 1"));
         }
-        return transactionItemRepository.findAll()
-                .skip((long) page * size)
-                .take(size)
+        return transactionItemRepository.findPage((long) page * size, size)
                 .map(this::convertToTransactionDto);
     }
 
+    public Mono<CursorPage<TransactionItemDto>> getTransactionItemsAfter(String after, int size) {
+        if (size <= 0) {
+            log.error("Bad request...");
+            return Mono.error(() -> new CustomBadRequestException("Size should not be less than 1"));
+        }
+        return Mono.fromCallable(() -> Cursor.decodeId(after))
+                .flatMapMany(afterId -> transactionItemRepository.findAllAfter(afterId, size))
+                .map(this::convertToTransactionDto)
+                .collectList()
+                .map(items -> CursorPage.of(items, size, TransactionItemDto::getId));
+    }
+
     public Flux<TransactionItemDto> getAllTransactionItemByHistoryId(Integer historyId, int page, int size) {
         if (page < 0 || size <= 0) {
             log.error("Bad request...");
             return Flux.error(() -> new CustomBadRequestException("Page and size should not be less than 1"));
         }
-        return transactionItemRepository.findAllByTransactionHistoryId(historyId)
-                .skip((long) page * size)
-                .take(size)
+        return transactionItemRepository.findPageByTransactionHistoryId(historyId, (long) page * size, size)
                 .map(this::convertToTransactionDto);
     }
 
+    public Mono<CursorPage<TransactionItemDto>> getTransactionItemsByHistoryIdAfter(Integer historyId, String after, int size) {
+        if (size <= 0) {
+            log.error("Bad request...");
+            return Mono.error(() -> new CustomBadRequestException("Size should not be less than 1"));
+        }
+        return Mono.fromCallable(() -> Cursor.decodeId(after))
+                .flatMapMany(afterId -> transactionItemRepository.findAllByTransactionHistoryIdAfter(historyId, afterId, size))
+                .map(this::convertToTransactionDto)
+                .collectList()
+                .map(items -> CursorPage.of(items, size, TransactionItemDto::getId));
+    }
+
 
     public Mono<TransactionItemDto> getTransactionById(Integer id) {
         return transactionItemRepository.findById(id)
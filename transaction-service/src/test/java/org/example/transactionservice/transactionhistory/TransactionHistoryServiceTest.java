@@ -79,7 +79,7 @@ public class TransactionHistoryServiceTest {
 
     @Test
     void getAllTransactionHistoryShouldReturnTransactionHistoryDtoListWhenGivenValidPageAndSize() {
-        when(transactionHistoryRepository.findAll())
+        when(transactionHistoryRepository.findPage(0L, 10))
                 .thenReturn(Flux.just(transactionHistory));
 
         Flux<TransactionHistoryDto> result = transactionHistoryService.getAllTransactionHistory(0, 10);
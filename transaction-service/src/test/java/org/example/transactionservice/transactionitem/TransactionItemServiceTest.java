@@ -46,7 +46,7 @@ public class TransactionItemServiceTest {
 
     @Test
     void getAllTransactionItemShouldReturnTransactionItemDtoFluxWhenGivenValidPageAndSize() {
-        when(transactionItemRepository.findAll())
+        when(transactionItemRepository.findPage(0L, 10))
                 .thenReturn(Flux.just(transactionItem));
 
         Flux<TransactionItemDto> result = transactionItemService.getAllTransactionItem(0, 10);
@@ -67,7 +67,7 @@ public class TransactionItemServiceTest {
 
     @Test
     void getAllTransactionItemByHistoryIdShouldReturnTransactionItemDtoFluxWhenGivenValidHistoryIdPageAndSize() {
-        when(transactionItemRepository.findAllByTransactionHistoryId(1))
+        when(transactionItemRepository.findPageByTransactionHistoryId(1, 0L, 1))
                 .thenReturn(Flux.just(transactionItem));
 
         Flux<TransactionItemDto> result = transactionItemService.getAllTransactionItemByHistoryId(1, 0, 1);